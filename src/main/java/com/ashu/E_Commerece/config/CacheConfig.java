@@ -13,6 +13,9 @@ import java.util.concurrent.TimeUnit;
 @EnableCaching
 public class CacheConfig {
 
+    public static final String RATING_SUMMARIES = "ratingSummaries";
+    public static final String BEST_SELLERS = "bestSellers";
+
     @Bean
     public CacheManager cacheManager() {
         CaffeineCacheManager cacheManager = new CaffeineCacheManager();
@@ -20,6 +23,17 @@ public class CacheConfig {
                 .maximumSize(500)
                 .expireAfterAccess(10, TimeUnit.MINUTES)
                 .recordStats());
+        // Refreshed in place by review writes; the write expiry bounds any lost update
+        cacheManager.registerCustomCache(RATING_SUMMARIES, Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(30, TimeUnit.MINUTES)
+                .recordStats()
+                .build());
+        // Sketch-backed rankings move continuously, so entries expire on write age rather than access
+        cacheManager.registerCustomCache(BEST_SELLERS, Caffeine.newBuilder()
+                .maximumSize(10)
+                .expireAfterWrite(1, TimeUnit.MINUTES)
+                .build());
         return cacheManager;
     }
 }
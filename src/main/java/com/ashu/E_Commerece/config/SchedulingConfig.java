@@ -0,0 +1,14 @@
+package com.ashu.E_Commerece.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background jobs (outbox dispatch, maintenance tasks).
+ * The scheduler pool is sized by spring.task.scheduling.pool.size so that
+ * long nightly rebuilds cannot hold up the frequent short jobs.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
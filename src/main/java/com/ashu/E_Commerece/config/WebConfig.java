@@ -16,6 +16,6 @@ public class WebConfig implements WebMvcConfigurer {
     public void addInterceptors(InterceptorRegistry registry) {
         registry.addInterceptor(rateLimitInterceptor)
                 .addPathPatterns("/api/**")
-                .excludePathPatterns("/api/auth/**", "/swagger-ui/**", "/api-docs/**");
+                .excludePathPatterns("/api/auth/**", "/swagger-ui/**", "/api-docs/**", "/api/payments/callback");
     }
 }
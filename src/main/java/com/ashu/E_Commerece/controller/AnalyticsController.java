@@ -5,15 +5,20 @@ import com.ashu.E_Commerece.dto.analytics.SalesAnalytics;
 import com.ashu.E_Commerece.dto.analytics.UserAnalytics;
 import com.ashu.E_Commerece.dto.common.ApiResponse;
 import com.ashu.E_Commerece.service.AnalyticsService;
+import com.ashu.E_Commerece.service.LiveSalesService;
+import com.ashu.E_Commerece.service.StockLevelService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @RestController
@@ -25,9 +30,11 @@ import java.time.LocalDateTime;
 public class AnalyticsController {
 
     private final AnalyticsService analyticsService;
+    private final LiveSalesService liveSalesService;
+    private final StockLevelService stockLevelService;
 
     @GetMapping("/sales")
-    @Operation(summary = "Get sales analytics")
+    @Operation(summary = "Get sales analytics (day granularity, defaults to the last month)")
     public ResponseEntity<ApiResponse<SalesAnalytics>> getSalesAnalytics(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
@@ -38,6 +45,26 @@ public class AnalyticsController {
         return ResponseEntity.ok(ApiResponse.success(analyticsService.getSalesAnalytics(startDate, endDate)));
     }
 
+    @GetMapping(value = "/sales/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream live sales metrics (Server-Sent Events: a snapshot, then deltas)")
+    public SseEmitter streamLiveSales() {
+        return liveSalesService.subscribe();
+    }
+
+    @GetMapping(value = "/stock/alerts", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream batched low-stock and out-of-stock alerts (Server-Sent Events)")
+    public SseEmitter streamStockAlerts() {
+        return stockLevelService.subscribe();
+    }
+
+    @PostMapping("/rollups/rebuild")
+    @Operation(summary = "Rebuild the daily sales rollups for a date range from orders")
+    public ResponseEntity<ApiResponse<Long>> rebuildSalesRollups(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(ApiResponse.success("Days rebuilt", analyticsService.rebuildSalesRollups(from, to)));
+    }
+
     @GetMapping("/products")
     @Operation(summary = "Get product analytics")
     public ResponseEntity<ApiResponse<ProductAnalytics>> getProductAnalytics() {
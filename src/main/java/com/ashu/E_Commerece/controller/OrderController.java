@@ -1,21 +1,38 @@
 package com.ashu.E_Commerece.controller;
 
 import com.ashu.E_Commerece.dto.common.ApiResponse;
+import com.ashu.E_Commerece.dto.common.CursorPagedResponse;
 import com.ashu.E_Commerece.dto.common.PagedResponse;
+import com.ashu.E_Commerece.dto.order.BulkOrderStatusUpdateRequest;
+import com.ashu.E_Commerece.dto.order.BulkOrderStatusUpdateResponse;
+import com.ashu.E_Commerece.dto.order.OrderEventResponse;
 import com.ashu.E_Commerece.dto.order.OrderRequest;
 import com.ashu.E_Commerece.dto.order.OrderResponse;
+import com.ashu.E_Commerece.dto.order.OrderSearchCriteria;
 import com.ashu.E_Commerece.dto.order.OrderStatusUpdateRequest;
 import com.ashu.E_Commerece.model.OrderStatus;
+import com.ashu.E_Commerece.service.IdempotencyService;
+import com.ashu.E_Commerece.service.OrderExportService;
 import com.ashu.E_Commerece.service.OrderService;
+import com.fasterxml.jackson.core.type.TypeReference;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -25,20 +42,26 @@ import org.springframework.web.bind.annotation.*;
 public class OrderController {
 
     private final OrderService orderService;
+    private final IdempotencyService idempotencyService;
+    private final OrderExportService orderExportService;
 
     @PostMapping
-    @Operation(summary = "Create order from cart")
-    public ResponseEntity<ApiResponse<OrderResponse>> createOrder(@Valid @RequestBody OrderRequest request) {
-        OrderResponse response = orderService.createOrder(request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.success("Order created", response));
+    @Operation(summary = "Create order from cart (retry-safe with Idempotency-Key header)")
+    public ResponseEntity<ApiResponse<OrderResponse>> createOrder(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody OrderRequest request) {
+        return idempotencyService.execute(idempotencyKey, "orders.create", request, new TypeReference<>() {}, () -> {
+            OrderResponse response = orderService.createOrder(request);
+            return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.success("Order created", response));
+        });
     }
 
     @GetMapping
-    @Operation(summary = "Get user's orders")
-    public ResponseEntity<ApiResponse<PagedResponse<OrderResponse>>> getUserOrders(
-            @RequestParam(defaultValue = "0") int page,
+    @Operation(summary = "Get user's orders, newest first, keyset-paginated")
+    public ResponseEntity<ApiResponse<CursorPagedResponse<OrderResponse>>> getUserOrders(
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "10") int size) {
-        return ResponseEntity.ok(ApiResponse.success(orderService.getUserOrders(page, size)));
+        return ResponseEntity.ok(ApiResponse.success(orderService.getUserOrders(cursor, size)));
     }
 
     @GetMapping("/all")
@@ -51,12 +74,56 @@ public class OrderController {
         return ResponseEntity.ok(ApiResponse.success(orderService.getAllOrders(page, size, status)));
     }
 
+    @GetMapping("/search")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Search orders with filters, keyset-paginated (Admin)")
+    public ResponseEntity<ApiResponse<CursorPagedResponse<OrderResponse>>> searchOrders(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+            @RequestParam(required = false) Set<OrderStatus> status,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String email,
+            @RequestParam(required = false) BigDecimal minTotal,
+            @RequestParam(required = false) BigDecimal maxTotal,
+            @RequestParam(required = false) String paymentMethod,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+
+        OrderSearchCriteria criteria = OrderSearchCriteria.builder()
+                .createdFrom(createdFrom).createdTo(createdTo).statuses(status).userId(userId)
+                .customerEmail(email).minTotal(minTotal).maxTotal(maxTotal).paymentMethod(paymentMethod).build();
+
+        return ResponseEntity.ok(ApiResponse.success(orderService.searchOrders(criteria, cursor, size)));
+    }
+
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Stream orders and line items created in [from, to) as CSV or NDJSON (Admin)")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "csv") String format) {
+        OrderExportService.Format exportFormat = OrderExportService.Format.from(format);
+        StreamingResponseBody body = orderExportService.export(from, to, exportFormat);
+        String filename = "orders-" + from.toLocalDate() + "-" + to.toLocalDate() + "." + exportFormat.getExtension();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get order by ID")
     public ResponseEntity<ApiResponse<OrderResponse>> getOrderById(@PathVariable Long id) {
         return ResponseEntity.ok(ApiResponse.success(orderService.getOrderById(id)));
     }
 
+    @GetMapping("/{id}/timeline")
+    @Operation(summary = "Get order status and note history")
+    public ResponseEntity<ApiResponse<List<OrderEventResponse>>> getOrderTimeline(@PathVariable Long id) {
+        return ResponseEntity.ok(ApiResponse.success(orderService.getOrderTimeline(id)));
+    }
+
     @PutMapping("/{id}/status")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Update order status (Admin)")
@@ -65,6 +132,14 @@ public class OrderController {
         return ResponseEntity.ok(ApiResponse.success("Order status updated", orderService.updateOrderStatus(id, request)));
     }
 
+    @PutMapping("/bulk/status")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Transition many orders to one status (Admin)")
+    public ResponseEntity<ApiResponse<BulkOrderStatusUpdateResponse>> bulkUpdateOrderStatus(
+            @Valid @RequestBody BulkOrderStatusUpdateRequest request) {
+        return ResponseEntity.ok(ApiResponse.success("Order statuses updated", orderService.bulkUpdateOrderStatus(request)));
+    }
+
     @PostMapping("/{id}/cancel")
     @Operation(summary = "Cancel order")
     public ResponseEntity<ApiResponse<OrderResponse>> cancelOrder(@PathVariable Long id) {
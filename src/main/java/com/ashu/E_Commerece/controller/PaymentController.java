@@ -1,17 +1,37 @@
 package com.ashu.E_Commerece.controller;
 
 import com.ashu.E_Commerece.dto.common.ApiResponse;
+import com.ashu.E_Commerece.dto.payment.PaymentCallbackRequest;
 import com.ashu.E_Commerece.dto.payment.PaymentRequest;
 import com.ashu.E_Commerece.dto.payment.PaymentResponse;
+import com.ashu.E_Commerece.dto.payment.ReconciliationSummary;
+import com.ashu.E_Commerece.exception.BadRequestException;
+import com.ashu.E_Commerece.exception.UnauthorizedException;
+import com.ashu.E_Commerece.service.IdempotencyService;
+import com.ashu.E_Commerece.service.PaymentReconciliationService;
 import com.ashu.E_Commerece.service.PaymentService;
+import com.ashu.E_Commerece.util.PaymentCallbackSigner;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
 @RestController
 @RequestMapping("/api/payments")
 @RequiredArgsConstructor
@@ -20,12 +40,49 @@ import org.springframework.web.bind.annotation.*;
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final PaymentReconciliationService reconciliationService;
+    private final IdempotencyService idempotencyService;
+    private final PaymentCallbackSigner callbackSigner;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
 
     @PostMapping("/process")
-    @Operation(summary = "Process payment (Mock)")
-    public ResponseEntity<ApiResponse<PaymentResponse>> processPayment(@Valid @RequestBody PaymentRequest request) {
-        PaymentResponse response = paymentService.processPayment(request);
-        return ResponseEntity.ok(ApiResponse.success("Payment processed", response));
+    @Operation(summary = "Submit payment for async processing (retry-safe with Idempotency-Key header)")
+    public ResponseEntity<ApiResponse<PaymentResponse>> processPayment(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody PaymentRequest request) {
+        return idempotencyService.execute(idempotencyKey, "payments.process", request, new TypeReference<>() {}, () -> {
+            PaymentResponse response = paymentService.processPayment(request);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(ApiResponse.success("Payment accepted", response));
+        });
+    }
+
+    /**
+     * Gateway notification of a payment outcome. Public, but authenticated by
+     * an HMAC signature over the raw body, so the body is parsed by hand.
+     */
+    @PostMapping("/callback")
+    @Operation(summary = "Payment gateway callback (signed)")
+    public ResponseEntity<ApiResponse<Void>> paymentCallback(
+            @RequestHeader(value = PaymentCallbackSigner.HEADER, required = false) String signature,
+            @RequestBody String body) {
+        if (!callbackSigner.verify(body, signature)) {
+            throw new UnauthorizedException("Invalid payment callback signature");
+        }
+
+        PaymentCallbackRequest callback;
+        try {
+            callback = objectMapper.readValue(body, PaymentCallbackRequest.class);
+        } catch (JsonProcessingException ex) {
+            throw new BadRequestException("Malformed payment callback");
+        }
+        Set<ConstraintViolation<PaymentCallbackRequest>> violations = validator.validate(callback);
+        if (!violations.isEmpty()) {
+            throw new BadRequestException(violations.iterator().next().getMessage());
+        }
+
+        paymentService.handleCallback(callback);
+        return ResponseEntity.ok(ApiResponse.success("Callback processed", null));
     }
 
     @GetMapping("/{paymentId}")
@@ -34,4 +91,29 @@ public class PaymentController {
         PaymentResponse response = paymentService.getPaymentStatus(paymentId);
         return ResponseEntity.ok(ApiResponse.success(response));
     }
+
+    @GetMapping("/order/{orderId}")
+    @Operation(summary = "List payment attempts for an order")
+    public ResponseEntity<ApiResponse<List<PaymentResponse>>> getOrderPayments(@PathVariable Long orderId) {
+        return ResponseEntity.ok(ApiResponse.success(paymentService.getOrderPayments(orderId)));
+    }
+
+    @PostMapping("/reconciliation")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Start reconciling payments against the gateway settlement file for a day (Admin only)")
+    public ResponseEntity<ApiResponse<ReconciliationSummary>> reconcile(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        ReconciliationSummary summary = reconciliationService.startReconciliation(date);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .location(URI.create("/api/payments/reconciliation/" + date))
+                .body(ApiResponse.success("Reconciliation started", summary));
+    }
+
+    @GetMapping("/reconciliation/{date}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get the status and summary of a day's reconciliation run (Admin only)")
+    public ResponseEntity<ApiResponse<ReconciliationSummary>> getReconciliation(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(ApiResponse.success(reconciliationService.getRun(date)));
+    }
 }
@@ -85,6 +85,13 @@ public class ProductController {
         return ResponseEntity.ok(ApiResponse.success(productService.getTopRatedProducts()));
     }
 
+    @GetMapping("/best-sellers")
+    @Operation(summary = "Get best-selling products over a sliding window (1h, 24h or 7d)")
+    public ResponseEntity<ApiResponse<List<ProductResponse>>> getBestSellers(
+            @RequestParam(defaultValue = "24h") String window) {
+        return ResponseEntity.ok(ApiResponse.success(productService.getBestSellers(window)));
+    }
+
     @GetMapping("/newest")
     @Operation(summary = "Get newest products")
     public ResponseEntity<ApiResponse<List<ProductResponse>>> getNewestProducts() {
@@ -2,6 +2,7 @@ package com.ashu.E_Commerece.controller;
 
 import com.ashu.E_Commerece.dto.common.ApiResponse;
 import com.ashu.E_Commerece.dto.common.PagedResponse;
+import com.ashu.E_Commerece.dto.review.RatingSummaryResponse;
 import com.ashu.E_Commerece.dto.review.ReviewRequest;
 import com.ashu.E_Commerece.dto.review.ReviewResponse;
 import com.ashu.E_Commerece.service.ReviewService;
@@ -26,8 +27,17 @@ public class ReviewController {
     public ResponseEntity<ApiResponse<PagedResponse<ReviewResponse>>> getProductReviews(
             @PathVariable Long productId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
-        return ResponseEntity.ok(ApiResponse.success(reviewService.getProductReviews(productId, page, size)));
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean verifiedOnly,
+            @RequestParam(defaultValue = "false") boolean verifiedFirst) {
+        return ResponseEntity.ok(ApiResponse.success(
+                reviewService.getProductReviews(productId, page, size, verifiedOnly, verifiedFirst)));
+    }
+
+    @GetMapping("/api/reviews/product/{productId}/summary")
+    @Operation(summary = "Get a product's rating summary (average, count, star distribution)")
+    public ResponseEntity<ApiResponse<RatingSummaryResponse>> getRatingSummary(@PathVariable Long productId) {
+        return ResponseEntity.ok(ApiResponse.success(reviewService.getRatingSummary(productId)));
     }
 
     @GetMapping("/api/reviews/my")
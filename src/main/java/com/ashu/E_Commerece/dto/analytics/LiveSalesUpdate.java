@@ -0,0 +1,42 @@
+package com.ashu.E_Commerece.dto.analytics;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Live dashboard event. A snapshot carries every metric; a delta carries only
+ * the status counts and minute buckets that changed since the previous event,
+ * with their new values, so applying events in sequence order reproduces the
+ * current state.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LiveSalesUpdate {
+
+    private long sequence;
+    private boolean snapshot;
+    private String date;
+    private long ordersToday;
+    private BigDecimal revenueToday;
+    private long ordersLastMinute;
+    private Map<String, Long> statusCounts;
+    private List<MinuteSales> minutes;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class MinuteSales {
+        private String minute;
+        private long orders;
+        private BigDecimal revenue;
+    }
+}
@@ -24,6 +24,8 @@ public class ProductAnalytics {
     private Map<String, Long> productsByCategory;
     private List<TopProduct> topRatedProducts;
     private List<TopProduct> topSellingProducts;
+    // Estimated best sellers per sliding window (1h, 24h, 7d); topSellingProducts is the 7d list
+    private Map<String, List<TopProduct>> topSellingByWindow;
     private List<LowStockProduct> lowStockProducts;
 
     @Data
@@ -35,6 +37,7 @@ public class ProductAnalytics {
         private String name;
         private BigDecimal rating;
         private long salesCount;
+        private BigDecimal revenue;
     }
 
     @Data
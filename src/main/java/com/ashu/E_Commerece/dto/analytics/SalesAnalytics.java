@@ -24,6 +24,12 @@ public class SalesAnalytics {
     private Map<String, Long> ordersByStatus;
     private List<DailySales> dailySales;
     private List<MonthlySales> monthlySales;
+    private List<CategorySales> categorySales;
+    // Approximate, from the HyperLogLog / quantile sketches (placed orders, including later cancellations)
+    private long uniqueBuyers;
+    private BigDecimal orderValueP50;
+    private BigDecimal orderValueP90;
+    private BigDecimal orderValueP99;
 
     @Data
     @NoArgsConstructor
@@ -44,4 +50,15 @@ public class SalesAnalytics {
         private BigDecimal revenue;
         private long orderCount;
     }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class CategorySales {
+        private Long categoryId;
+        private String categoryName;
+        private BigDecimal revenue;
+        private long unitsSold;
+    }
 }
@@ -0,0 +1,41 @@
+package com.ashu.E_Commerece.dto.analytics;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Stock threshold crossings collected over one alert interval. A product
+ * appears once, with the level it left and the level it ended up at.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockAlertBatch {
+
+    private long sequence;
+    private String createdAt;
+    private long lowStockProducts;
+    private long outOfStockProducts;
+    private List<StockAlert> alerts;
+
+    public enum Level {
+        IN_STOCK, LOW_STOCK, OUT_OF_STOCK
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class StockAlert {
+        private Long productId;
+        private String name;
+        private int stockQuantity;
+        private Level previousLevel;
+        private Level level;
+    }
+}
@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -20,4 +21,15 @@ public class UserAnalytics {
     private long activeUsers;
     private long newUsersThisMonth;
     private Map<String, Long> usersByRole;
+    private List<SignupCohort> dailySignups;
+    private List<SignupCohort> monthlySignups;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class SignupCohort {
+        private String period;
+        private long newUsers;
+    }
 }
@@ -0,0 +1,29 @@
+package com.ashu.E_Commerece.dto.order;
+
+import com.ashu.E_Commerece.model.OrderStatus;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for transitioning many orders to the same status.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkOrderStatusUpdateRequest {
+
+    @NotEmpty(message = "At least one order ID is required")
+    @Size(max = 50000, message = "At most 50000 orders per request")
+    private List<Long> orderIds;
+
+    @NotNull(message = "Status is required")
+    private OrderStatus status;
+}
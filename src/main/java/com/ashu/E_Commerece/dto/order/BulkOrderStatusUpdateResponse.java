@@ -0,0 +1,24 @@
+package com.ashu.E_Commerece.dto.order;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for bulk status transition results.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkOrderStatusUpdateResponse {
+
+    private String status;
+    private int requested;
+    private int updated;
+    // Unknown ids or orders whose current status does not allow the transition
+    private List<Long> skippedOrderIds;
+}
@@ -0,0 +1,26 @@
+package com.ashu.E_Commerece.dto.order;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for one entry of an order timeline.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderEventResponse {
+
+    private Long id;
+    private String type;
+    private String fromStatus;
+    private String toStatus;
+    private String note;
+    private String actor;
+    private LocalDateTime createdAt;
+}
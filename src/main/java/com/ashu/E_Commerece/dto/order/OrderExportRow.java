@@ -0,0 +1,40 @@
+package com.ashu.E_Commerece.dto.order;
+
+import com.ashu.E_Commerece.model.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One order line joined with its order header, as streamed by the finance export.
+ * Field order matches the JPQL constructor expression in OrderRepository.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderExportRow {
+
+    private Long orderId;
+    private String orderNumber;
+    private String customerEmail;
+    private OrderStatus status;
+    private String paymentMethod;
+    private String paymentId;
+    private LocalDateTime createdAt;
+    private BigDecimal subtotal;
+    private BigDecimal shippingCost;
+    private BigDecimal tax;
+    private BigDecimal discount;
+    private BigDecimal totalAmount;
+    private Long itemId;
+    private Long productId;
+    private String productName;
+    private String productSku;
+    private Integer quantity;
+    private BigDecimal unitPrice;
+}
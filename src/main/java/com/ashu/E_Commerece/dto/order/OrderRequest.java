@@ -3,6 +3,7 @@ package com.ashu.E_Commerece.dto.order;
 import com.ashu.E_Commerece.model.Address;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -26,5 +27,7 @@ public class OrderRequest {
 
     private String paymentMethod;
 
+    // Recorded on order_events.note, which holds at most 2000 characters
+    @Size(max = 2000, message = "Notes must be at most 2000 characters")
     private String notes;
 }
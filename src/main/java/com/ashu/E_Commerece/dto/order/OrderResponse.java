@@ -36,4 +36,6 @@ public class OrderResponse {
     private LocalDateTime createdAt;
     private LocalDateTime shippedAt;
     private LocalDateTime deliveredAt;
+    // True when served from the order archive (read-only history)
+    private boolean archived;
 }
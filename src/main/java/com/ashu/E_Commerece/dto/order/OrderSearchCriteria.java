@@ -0,0 +1,30 @@
+package com.ashu.E_Commerece.dto.order;
+
+import com.ashu.E_Commerece.model.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * DTO for admin order search criteria. All filters are optional and combined with AND.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderSearchCriteria {
+
+    private LocalDateTime createdFrom;
+    private LocalDateTime createdTo;
+    private Set<OrderStatus> statuses;
+    private Long userId;
+    private String customerEmail;
+    private BigDecimal minTotal;
+    private BigDecimal maxTotal;
+    private String paymentMethod;
+}
@@ -2,6 +2,7 @@ package com.ashu.E_Commerece.dto.order;
 
 import com.ashu.E_Commerece.model.OrderStatus;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -19,5 +20,7 @@ public class OrderStatusUpdateRequest {
     @NotNull(message = "Status is required")
     private OrderStatus status;
 
+    // Recorded on order_events.note, which holds at most 2000 characters
+    @Size(max = 2000, message = "Notes must be at most 2000 characters")
     private String notes;
 }
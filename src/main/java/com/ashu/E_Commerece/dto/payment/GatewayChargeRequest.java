@@ -0,0 +1,23 @@
+package com.ashu.E_Commerece.dto.payment;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO for a charge submitted to the payment gateway.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GatewayChargeRequest {
+
+    private String paymentId;
+    private String orderNumber;
+    private BigDecimal amount;
+    private String paymentMethod;
+}
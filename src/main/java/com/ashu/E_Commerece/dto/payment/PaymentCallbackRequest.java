@@ -0,0 +1,29 @@
+package com.ashu.E_Commerece.dto.payment;
+
+import com.ashu.E_Commerece.model.PaymentStatus;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the gateway's asynchronous payment outcome notification.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaymentCallbackRequest {
+
+    @NotBlank(message = "Payment ID is required")
+    private String paymentId;
+
+    @NotNull(message = "Status is required")
+    private PaymentStatus status;
+
+    private String gatewayReference;
+
+    private String failureReason;
+}
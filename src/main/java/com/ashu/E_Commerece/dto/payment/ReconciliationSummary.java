@@ -0,0 +1,36 @@
+package com.ashu.E_Commerece.dto.payment;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * DTO summarizing one settlement reconciliation run. Counts are filled in
+ * once the run has completed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReconciliationSummary {
+
+    public enum Status {
+        RUNNING, COMPLETED, FAILED
+    }
+
+    private LocalDate settlementDate;
+    private Status status;
+    private LocalDateTime startedAt;
+    private String failureReason;
+    private long settlementRows;
+    private long matched;
+    private long mismatches;
+    private Map<String, Long> mismatchesByType;
+    private String reportFile;
+    private long durationMs;
+}
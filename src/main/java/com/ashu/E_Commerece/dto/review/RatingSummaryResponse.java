@@ -0,0 +1,25 @@
+package com.ashu.E_Commerece.dto.review;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * DTO for a product's rating summary: average, count and star histogram.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RatingSummaryResponse {
+
+    private Long productId;
+    private BigDecimal averageRating;
+    private Integer reviewCount;
+    // Star value (1-5) to number of reviews, always with all five keys
+    private Map<Integer, Integer> distribution;
+}
@@ -0,0 +1,103 @@
+package com.ashu.E_Commerece.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read-only cold copy of a finished order. Rows are moved here from
+ * {@code orders} by the archival job with their original ids.
+ */
+@Entity
+@Immutable
+@Table(name = "orders_archive", indexes = {
+    @Index(name = "idx_orders_archive_user_created_id", columnList = "user_id, created_at, id"),
+    @Index(name = "idx_orders_archive_updated", columnList = "updated_at"),
+    @Index(name = "idx_orders_archive_created", columnList = "created_at"),
+    @Index(name = "idx_orders_archive_order_number", columnList = "order_number", unique = true)
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArchivedOrder {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private String orderNumber;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @OneToMany(mappedBy = "order")
+    @Builder.Default
+    private List<ArchivedOrderItem> items = new ArrayList<>();
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal subtotal;
+
+    @Column(precision = 10, scale = 2)
+    private BigDecimal shippingCost;
+
+    @Column(precision = 10, scale = 2)
+    private BigDecimal tax;
+
+    @Column(precision = 10, scale = 2)
+    private BigDecimal discount;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal totalAmount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OrderStatus status;
+
+    @Embedded
+    @AttributeOverrides({
+        @AttributeOverride(name = "street", column = @Column(name = "shipping_street")),
+        @AttributeOverride(name = "city", column = @Column(name = "shipping_city")),
+        @AttributeOverride(name = "state", column = @Column(name = "shipping_state")),
+        @AttributeOverride(name = "zipCode", column = @Column(name = "shipping_zip_code")),
+        @AttributeOverride(name = "country", column = @Column(name = "shipping_country"))
+    })
+    private Address shippingAddress;
+
+    @Embedded
+    @AttributeOverrides({
+        @AttributeOverride(name = "street", column = @Column(name = "billing_street")),
+        @AttributeOverride(name = "city", column = @Column(name = "billing_city")),
+        @AttributeOverride(name = "state", column = @Column(name = "billing_state")),
+        @AttributeOverride(name = "zipCode", column = @Column(name = "billing_zip_code")),
+        @AttributeOverride(name = "country", column = @Column(name = "billing_country"))
+    })
+    private Address billingAddress;
+
+    private String paymentId;
+
+    private String paymentMethod;
+
+    @Column(columnDefinition = "TEXT")
+    private String notes;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    private LocalDateTime shippedAt;
+
+    private LocalDateTime deliveredAt;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+}
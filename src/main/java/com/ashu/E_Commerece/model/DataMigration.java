@@ -0,0 +1,31 @@
+package com.ashu.E_Commerece.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DataMigration entity marking a one-time data backfill as applied, so it is
+ * not re-run on every startup.
+ */
+@Entity
+@Table(name = "data_migrations")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DataMigration {
+
+    @Id
+    @Column(length = 100)
+    private String name;
+
+    private Integer rowsAffected;
+
+    @Column(nullable = false)
+    private LocalDateTime appliedAt;
+}
@@ -0,0 +1,61 @@
+package com.ashu.E_Commerece.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * IdempotencyRecord entity storing the outcome of a request made with an
+ * Idempotency-Key header so that client retries can be replayed.
+ */
+@Entity
+@Table(name = "idempotency_keys", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"scope", "idempotency_key"})
+}, indexes = {
+    @Index(name = "idx_idempotency_expires_at", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "idempotency_keys_seq")
+    @SequenceGenerator(name = "idempotency_keys_seq", sequenceName = "idempotency_keys_seq", allocationSize = 50)
+    private Long id;
+
+    // Operation + principal, so keys from different users never collide
+    @Column(nullable = false, length = 200)
+    private String scope;
+
+    @Column(name = "idempotency_key", nullable = false)
+    private String idempotencyKey;
+
+    // SHA-256 of the request body, used to reject key reuse with a different payload
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    @Builder.Default
+    private boolean completed = false;
+
+    private Integer responseStatus;
+
+    @Column(columnDefinition = "TEXT")
+    private String responseBody;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -15,15 +15,26 @@ import java.util.List;
  * Order entity representing a customer's purchase order.
  */
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+    @Index(name = "idx_orders_status_updated", columnList = "status, updated_at"),
+    // Incremental columnar snapshot reads changes since a watermark
+    @Index(name = "idx_orders_updated", columnList = "updated_at"),
+    // Admin search: every filter leads into (created_at, id) for the keyset order
+    @Index(name = "idx_orders_created_id", columnList = "created_at, id"),
+    @Index(name = "idx_orders_status_created_id", columnList = "status, created_at, id"),
+    @Index(name = "idx_orders_user_created_id", columnList = "user_id, created_at, id"),
+    @Index(name = "idx_orders_payment_created_id", columnList = "payment_method, created_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Order {
 
+    // Pooled sequence ids are assigned in memory, so order + item inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
     @Column(unique = true, nullable = false)
@@ -84,6 +95,7 @@ public class Order {
 
     private String paymentMethod;
 
+    // Customer's checkout note only; later notes go to the order_events timeline
     @Column(columnDefinition = "TEXT")
     private String notes;
 
@@ -0,0 +1,63 @@
+package com.ashu.E_Commerece.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * OrderEvent entity: one append-only timeline entry per status change or
+ * note. Rows are never updated, so order history grows by inserts instead of
+ * rewriting a notes blob. Keyed by plain order id (no FK) so the timeline
+ * survives archival of the order.
+ */
+@Entity
+@Immutable
+@Table(name = "order_events", indexes = {
+    @Index(name = "idx_order_events_order", columnList = "order_id, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_events_seq")
+    @SequenceGenerator(name = "order_events_seq", sequenceName = "order_events_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OrderEventType type;
+
+    @Enumerated(EnumType.STRING)
+    private OrderStatus fromStatus;
+
+    @Enumerated(EnumType.STRING)
+    private OrderStatus toStatus;
+
+    @Column(length = 2000)
+    private String note;
+
+    // Email of the user who made the change, or "system" for background jobs
+    @Column(nullable = false)
+    private String actor;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.ashu.E_Commerece.model;
+
+/**
+ * Kinds of entries in an order's timeline.
+ */
+public enum OrderEventType {
+    CREATED,
+    STATUS_CHANGED,
+    NOTE_ADDED
+}
@@ -14,7 +14,9 @@ import java.math.BigDecimal;
  * OrderItem entity representing a product in an order.
  */
 @Entity
-@Table(name = "order_items")
+@Table(name = "order_items", indexes = {
+    @Index(name = "idx_order_items_order", columnList = "order_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -22,7 +24,8 @@ import java.math.BigDecimal;
 public class OrderItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_seq")
+    @SequenceGenerator(name = "order_items_seq", sequenceName = "order_items_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -33,12 +36,20 @@ public class OrderItem {
     @JoinColumn(name = "product_id", nullable = false)
     private Product product;
 
+    // Read-only view of the FK so listings get the product id without touching the Product proxy
+    @Column(name = "product_id", insertable = false, updatable = false)
+    private Long productId;
+
     // Store product details at time of purchase
     @Column(nullable = false)
     private String productName;
 
     private String productSku;
 
+    // Category at time of purchase (0 = none), so a reversal subtracts from the category the sale was credited to
+    @Column(name = "category_id")
+    private Long categoryId;
+
     @NotNull(message = "Quantity is required")
     @Min(value = 1, message = "Quantity must be at least 1")
     @Column(nullable = false)
@@ -1,7 +1,13 @@
 package com.ashu.E_Commerece.model;
 
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 /**
- * Enum representing order statuses.
+ * Enum representing order statuses and the transitions allowed between them.
  */
 public enum OrderStatus {
     PENDING,
@@ -10,5 +16,35 @@ public enum OrderStatus {
     SHIPPED,
     DELIVERED,
     CANCELLED,
-    REFUNDED
+    REFUNDED;
+
+    private static final Map<OrderStatus, Set<OrderStatus>> TRANSITIONS = new EnumMap<>(OrderStatus.class);
+    private static final Map<OrderStatus, Set<OrderStatus>> PREDECESSORS = new EnumMap<>(OrderStatus.class);
+
+    static {
+        TRANSITIONS.put(PENDING, EnumSet.of(CONFIRMED, CANCELLED));
+        TRANSITIONS.put(CONFIRMED, EnumSet.of(PROCESSING, SHIPPED, CANCELLED));
+        TRANSITIONS.put(PROCESSING, EnumSet.of(SHIPPED, CANCELLED));
+        TRANSITIONS.put(SHIPPED, EnumSet.of(DELIVERED));
+        TRANSITIONS.put(DELIVERED, EnumSet.of(REFUNDED));
+        TRANSITIONS.put(CANCELLED, EnumSet.noneOf(OrderStatus.class));
+        TRANSITIONS.put(REFUNDED, EnumSet.noneOf(OrderStatus.class));
+
+        for (OrderStatus status : values()) {
+            PREDECESSORS.put(status, EnumSet.noneOf(OrderStatus.class));
+        }
+        TRANSITIONS.forEach((from, targets) -> targets.forEach(to -> PREDECESSORS.get(to).add(from)));
+    }
+
+    public boolean canTransitionTo(OrderStatus next) {
+        return TRANSITIONS.get(this).contains(next);
+    }
+
+    /**
+     * Statuses from which this status can be reached - used as the WHERE guard
+     * for set-based bulk transitions.
+     */
+    public Set<OrderStatus> allowedPredecessors() {
+        return Collections.unmodifiableSet(PREDECESSORS.get(this));
+    }
 }
@@ -0,0 +1,10 @@
+package com.ashu.E_Commerece.model;
+
+/**
+ * Enum representing side-effect events recorded in the transactional outbox.
+ */
+public enum OutboxEventType {
+    ORDER_CREATED,
+    ORDER_STATUS_CHANGED,
+    ORDER_STATUS_BATCH_CHANGED
+}
@@ -0,0 +1,11 @@
+package com.ashu.E_Commerece.model;
+
+/**
+ * Enum representing delivery states of an outbox event.
+ */
+public enum OutboxStatus {
+    PENDING,
+    IN_FLIGHT,
+    DELIVERED,
+    DEAD
+}
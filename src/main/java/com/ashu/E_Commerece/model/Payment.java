@@ -0,0 +1,80 @@
+package com.ashu.E_Commerece.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Payment entity: one ledger row per payment attempt. An order may have
+ * several attempts; the successful one is also referenced by Order.paymentId.
+ * Order id is a plain column (no FK) so the ledger outlives order archival.
+ */
+@Entity
+@Table(name = "payments", indexes = {
+    @Index(name = "idx_payments_payment_id", columnList = "payment_id", unique = true),
+    @Index(name = "idx_payments_order_attempt", columnList = "order_id, attempt"),
+    @Index(name = "idx_payments_status_completed", columnList = "status, completed_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Payment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payments_seq")
+    @SequenceGenerator(name = "payments_seq", sequenceName = "payments_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "payment_id", nullable = false, length = 64)
+    private String paymentId;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    // 1-based attempt number within the order
+    @Column(nullable = false)
+    private int attempt;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal amount;
+
+    private String paymentMethod;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private PaymentStatus status = PaymentStatus.PENDING;
+
+    @Column(length = 500)
+    private String failureReason;
+
+    // Provider-side transaction id, reported in the callback
+    private String gatewayReference;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    private LocalDateTime completedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        // Backfilled legacy payments keep their original timestamp
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+        updatedAt = createdAt;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,10 @@
+package com.ashu.E_Commerece.model;
+
+/**
+ * Outcome of a single payment attempt.
+ */
+public enum PaymentStatus {
+    PENDING,
+    SUCCESS,
+    FAILED
+}
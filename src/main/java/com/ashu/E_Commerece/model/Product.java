@@ -6,6 +6,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -24,7 +25,8 @@ import java.util.List;
 public class Product {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Product name is required")
@@ -65,13 +67,47 @@ public class Product {
     @Builder.Default
     private List<Review> reviews = new ArrayList<>();
 
-    @Column(precision = 3, scale = 2)
+    // Rating columns are written only by the delta UPDATEs on review writes, never by
+    // entity saves, so a save of a stale Product cannot overwrite a concurrent delta
+    @Column(precision = 3, scale = 2, updatable = false)
     @Builder.Default
     private BigDecimal averageRating = BigDecimal.ZERO;
 
     @Builder.Default
+    @Column(updatable = false)
     private Integer reviewCount = 0;
 
+    // Running rating aggregates, maintained by delta updates on review writes
+    @Builder.Default
+    @ColumnDefault("0")
+    @Column(nullable = false, updatable = false)
+    private Long ratingSum = 0L;
+
+    @Builder.Default
+    @ColumnDefault("0")
+    @Column(nullable = false, updatable = false)
+    private Integer oneStarCount = 0;
+
+    @Builder.Default
+    @ColumnDefault("0")
+    @Column(nullable = false, updatable = false)
+    private Integer twoStarCount = 0;
+
+    @Builder.Default
+    @ColumnDefault("0")
+    @Column(nullable = false, updatable = false)
+    private Integer threeStarCount = 0;
+
+    @Builder.Default
+    @ColumnDefault("0")
+    @Column(nullable = false, updatable = false)
+    private Integer fourStarCount = 0;
+
+    @Builder.Default
+    @ColumnDefault("0")
+    @Column(nullable = false, updatable = false)
+    private Integer fiveStarCount = 0;
+
     @Builder.Default
     private boolean active = true;
 
@@ -17,6 +17,8 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "reviews", uniqueConstraints = {
     @UniqueConstraint(columnNames = {"user_id", "product_id"})
+}, indexes = {
+    @Index(name = "idx_reviews_product_verified_created", columnList = "product_id, verified, created_at")
 })
 @Data
 @NoArgsConstructor
@@ -25,7 +27,8 @@ import java.time.LocalDateTime;
 public class Review {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reviews_seq")
+    @SequenceGenerator(name = "reviews_seq", sequenceName = "reviews_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -47,6 +50,7 @@ public class Review {
 
     private String title;
 
+    // Reviewer has a delivered order containing the product
     @Builder.Default
     private boolean verified = false;
 
@@ -0,0 +1,40 @@
+package com.ashu.E_Commerece.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * SalesDaily entity: pre-aggregated sales per order creation day, hot and
+ * archived orders alike. Maintained by delta updates as orders are placed,
+ * cancelled or refunded, so range analytics read one row per day instead of
+ * scanning orders.
+ */
+@Entity
+@Table(name = "sales_daily")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SalesDaily {
+
+    @Id
+    @Column(name = "sales_date")
+    private LocalDate salesDate;
+
+    // All orders created that day, whatever their status
+    @Column(nullable = false)
+    private long orderCount;
+
+    // Orders still counting towards revenue (not cancelled or refunded)
+    @Column(nullable = false)
+    private long revenueOrderCount;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue;
+}
@@ -0,0 +1,49 @@
+package com.ashu.E_Commerece.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * SalesDailyCategory entity: merchandise revenue and units per order creation
+ * day and product category (category id 0 for uncategorized products).
+ */
+@Entity
+@Table(name = "sales_daily_category")
+@IdClass(SalesDailyCategory.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SalesDailyCategory {
+
+    public static final long UNCATEGORIZED = 0L;
+
+    @Id
+    @Column(name = "sales_date")
+    private LocalDate salesDate;
+
+    @Id
+    @Column(name = "category_id")
+    private Long categoryId;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue;
+
+    @Column(nullable = false)
+    private long unitsSold;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate salesDate;
+        private Long categoryId;
+    }
+}
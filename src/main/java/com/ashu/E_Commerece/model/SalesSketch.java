@@ -0,0 +1,54 @@
+package com.ashu.E_Commerece.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * SalesSketch entity: serialized streaming sketches of the orders placed in a
+ * day or month - a HyperLogLog of buyer ids and a quantile sketch of order
+ * totals. Month rows let long ranges merge a few dozen sketches instead of
+ * one per day.
+ */
+@Entity
+@Table(name = "sales_sketches")
+@IdClass(SalesSketch.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SalesSketch {
+
+    public enum Period {
+        DAY,
+        MONTH
+    }
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "period_type", length = 8)
+    private Period period;
+
+    @Id
+    @Column(name = "period_start")
+    private LocalDate periodStart;
+
+    @Column(nullable = false, length = 8192)
+    private byte[] buyers;
+
+    @Column(nullable = false, length = 65536)
+    private byte[] orderValues;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Period period;
+        private LocalDate periodStart;
+    }
+}
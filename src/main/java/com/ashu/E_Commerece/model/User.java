@@ -20,7 +20,9 @@ import java.util.List;
  * User entity representing registered users in the system.
  */
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+    @Index(name = "idx_users_last_active", columnList = "last_active_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -28,7 +30,8 @@ import java.util.List;
 public class User implements UserDetails {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Email is required")
@@ -72,6 +75,10 @@ public class User implements UserDetails {
 
     private LocalDateTime updatedAt;
 
+    // Last login or order, coarsened to the activity resolution; drives the active user count
+    @Column(name = "last_active_at")
+    private LocalDateTime lastActiveAt;
+
     @Column(nullable = false)
     private boolean enabled;
 
@@ -0,0 +1,46 @@
+package com.ashu.E_Commerece.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * UserSignupDaily entity: number of users registered per signup day and role.
+ * Users are never deleted and keep their role, so the rollup is maintained by
+ * increments alone; totals, role breakdowns and signup cohorts are sums over
+ * it instead of scans of the users table.
+ */
+@Entity
+@Table(name = "user_signups_daily")
+@IdClass(UserSignupDaily.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserSignupDaily {
+
+    @Id
+    @Column(name = "signup_date")
+    private LocalDate signupDate;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "role", length = 20)
+    private Role role;
+
+    @Column(nullable = false)
+    private long userCount;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate signupDate;
+        private Role role;
+    }
+}
@@ -0,0 +1,107 @@
+package com.ashu.E_Commerece.repository;
+
+import com.ashu.E_Commerece.dto.order.OrderExportRow;
+import com.ashu.E_Commerece.model.ArchivedOrder;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Repository for the cold order archive: read fallbacks and the set-based
+ * statements used by the archival job to move rows out of the hot tables.
+ */
+@Repository
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long> {
+
+    // Finance export of archived orders, in the same order and shape as OrderRepository.streamExportRows
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.ashu.E_Commerece.dto.order.OrderExportRow(o.id, o.orderNumber, u.email, o.status, " +
+           "o.paymentMethod, o.paymentId, o.createdAt, o.subtotal, o.shippingCost, o.tax, o.discount, o.totalAmount, " +
+           "i.id, i.productId, i.productName, i.productSku, i.quantity, i.unitPrice) " +
+           "FROM ArchivedOrderItem i JOIN i.order o JOIN User u ON u.id = o.userId " +
+           "WHERE o.createdAt >= :from AND o.createdAt < :to ORDER BY o.createdAt, o.id, i.id")
+    Stream<OrderExportRow> streamExportRows(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT o FROM ArchivedOrder o LEFT JOIN FETCH o.items WHERE o.id = :id")
+    Optional<ArchivedOrder> findByIdWithItems(@Param("id") Long id);
+
+    @Query("SELECT o FROM ArchivedOrder o LEFT JOIN FETCH o.items WHERE o.orderNumber = :orderNumber")
+    Optional<ArchivedOrder> findByOrderNumberWithItems(@Param("orderNumber") String orderNumber);
+
+    @Query("SELECT o.id, o.createdAt FROM ArchivedOrder o WHERE o.userId = :userId ORDER BY o.createdAt DESC, o.id DESC")
+    List<Object[]> findKeysByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT o.id, o.createdAt FROM ArchivedOrder o WHERE o.userId = :userId " +
+           "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) " +
+           "ORDER BY o.createdAt DESC, o.id DESC")
+    List<Object[]> findKeysByUserIdBefore(@Param("userId") Long userId,
+                                          @Param("createdAt") LocalDateTime createdAt,
+                                          @Param("id") Long id,
+                                          Pageable pageable);
+
+    @Query("SELECT DISTINCT o FROM ArchivedOrder o LEFT JOIN FETCH o.items WHERE o.id IN :ids")
+    List<ArchivedOrder> findAllWithItemsByIdIn(@Param("ids") Collection<Long> ids);
+
+    long countByUserId(Long userId);
+
+    @Query("SELECT COUNT(o) > 0 FROM ArchivedOrder o JOIN o.items i WHERE o.userId = :userId AND i.productId = :productId " +
+           "AND o.status = com.ashu.E_Commerece.model.OrderStatus.DELIVERED")
+    boolean existsDeliveredPurchase(@Param("userId") Long userId, @Param("productId") Long productId);
+
+    // Archival moves (native so rows are copied server-side without entity hydration)
+    @Modifying
+    @Query(value = "INSERT INTO orders_archive (id, order_number, user_id, subtotal, shipping_cost, tax, discount, " +
+            "total_amount, status, shipping_street, shipping_city, shipping_state, shipping_zip_code, shipping_country, " +
+            "billing_street, billing_city, billing_state, billing_zip_code, billing_country, payment_id, payment_method, " +
+            "notes, created_at, updated_at, shipped_at, delivered_at, archived_at) " +
+            "SELECT id, order_number, user_id, subtotal, shipping_cost, tax, discount, " +
+            "total_amount, status, shipping_street, shipping_city, shipping_state, shipping_zip_code, shipping_country, " +
+            "billing_street, billing_city, billing_state, billing_zip_code, billing_country, payment_id, payment_method, " +
+            "notes, created_at, updated_at, shipped_at, delivered_at, CURRENT_TIMESTAMP " +
+            "FROM orders WHERE id IN (:ids)", nativeQuery = true)
+    int copyOrders(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "INSERT INTO order_items_archive (id, order_id, product_id, product_name, product_sku, category_id, " +
+            "quantity, unit_price) " +
+            "SELECT id, order_id, product_id, product_name, product_sku, category_id, quantity, unit_price " +
+            "FROM order_items WHERE order_id IN (:ids)", nativeQuery = true)
+    int copyOrderItems(@Param("ids") Collection<Long> ids);
+
+    // Archived lines from before lines recorded their category take their product's current one
+    @Modifying
+    @Query(value = "UPDATE order_items_archive SET category_id = COALESCE(" +
+            "(SELECT p.category_id FROM products p WHERE p.id = order_items_archive.product_id), 0) " +
+            "WHERE category_id IS NULL", nativeQuery = true)
+    int backfillItemCategories();
+
+    @Modifying
+    @Query(value = "DELETE FROM order_items WHERE order_id IN (:ids)", nativeQuery = true)
+    int deleteHotOrderItems(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "DELETE FROM orders WHERE id IN (:ids)", nativeQuery = true)
+    int deleteHotOrders(@Param("ids") Collection<Long> ids);
+
+    // Analytics contributions of archived history
+    @Query("SELECT MIN(o.createdAt) FROM ArchivedOrder o")
+    LocalDateTime findEarliestCreatedAt();
+
+    @Query("SELECT o.status, COUNT(o) FROM ArchivedOrder o GROUP BY o.status")
+    List<Object[]> countOrdersByStatus();
+}
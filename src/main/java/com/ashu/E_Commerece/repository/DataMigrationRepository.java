@@ -0,0 +1,12 @@
+package com.ashu.E_Commerece.repository;
+
+import com.ashu.E_Commerece.model.DataMigration;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for DataMigration entity operations.
+ */
+@Repository
+public interface DataMigrationRepository extends JpaRepository<DataMigration, String> {
+}
@@ -0,0 +1,16 @@
+package com.ashu.E_Commerece.repository;
+
+import com.ashu.E_Commerece.model.OrderEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository for the append-only order timeline.
+ */
+@Repository
+public interface OrderEventRepository extends JpaRepository<OrderEvent, Long> {
+
+    List<OrderEvent> findByOrderIdOrderByIdAsc(Long orderId);
+}
@@ -1,24 +1,35 @@
 package com.ashu.E_Commerece.repository;
 
+import com.ashu.E_Commerece.dto.order.OrderExportRow;
 import com.ashu.E_Commerece.model.Order;
 import com.ashu.E_Commerece.model.OrderStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository for Order entity operations with analytics queries.
  */
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order>,
+        OrderSearchRepository {
 
     Page<Order> findByUserId(Long userId, Pageable pageable);
 
@@ -28,9 +39,48 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
 
     Optional<Order> findByOrderNumber(String orderNumber);
 
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> findByIdForUpdate(@Param("id") Long id);
+
     @Query("SELECT o FROM Order o LEFT JOIN FETCH o.items WHERE o.id = :id")
     Optional<Order> findByIdWithItems(@Param("id") Long id);
 
+    // Two-phase listings: page ids only, then load that page with items in one IN query
+    // (id, createdAt) keys newest first, merged with the archive's by the keyset user order listing
+    @Query("SELECT o.id, o.createdAt FROM Order o WHERE o.user.id = :userId ORDER BY o.createdAt DESC, o.id DESC")
+    List<Object[]> findKeysByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT o.id, o.createdAt FROM Order o WHERE o.user.id = :userId " +
+           "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) " +
+           "ORDER BY o.createdAt DESC, o.id DESC")
+    List<Object[]> findKeysByUserIdBefore(@Param("userId") Long userId,
+                                          @Param("createdAt") LocalDateTime createdAt,
+                                          @Param("id") Long id,
+                                          Pageable pageable);
+
+    @Query(value = "SELECT o.id FROM Order o WHERE o.status = :status",
+           countQuery = "SELECT COUNT(o) FROM Order o WHERE o.status = :status")
+    Page<Long> findIdsByStatus(@Param("status") OrderStatus status, Pageable pageable);
+
+    @Query(value = "SELECT o.id FROM Order o", countQuery = "SELECT COUNT(o) FROM Order o")
+    Page<Long> findAllIds(Pageable pageable);
+
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.items WHERE o.id IN :ids")
+    List<Order> findAllWithItemsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Finance export: one forward-only pass over order lines, projected so nothing enters the persistence context
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.ashu.E_Commerece.dto.order.OrderExportRow(o.id, o.orderNumber, u.email, o.status, " +
+           "o.paymentMethod, o.paymentId, o.createdAt, o.subtotal, o.shippingCost, o.tax, o.discount, o.totalAmount, " +
+           "i.id, i.productId, i.productName, i.productSku, i.quantity, i.unitPrice) " +
+           "FROM OrderItem i JOIN i.order o JOIN o.user u " +
+           "WHERE o.createdAt >= :from AND o.createdAt < :to ORDER BY o.createdAt, o.id, i.id")
+    Stream<OrderExportRow> streamExportRows(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
     // Analytics queries
     @Query("SELECT SUM(o.totalAmount) FROM Order o WHERE o.status NOT IN ('CANCELLED', 'REFUNDED')")
     BigDecimal calculateTotalRevenue();
@@ -47,19 +97,60 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT o.status, COUNT(o) FROM Order o GROUP BY o.status")
     List<Object[]> countOrdersByStatus();
 
-    @Query("SELECT FUNCTION('DATE', o.createdAt), SUM(o.totalAmount), COUNT(o) FROM Order o " +
-           "WHERE o.createdAt BETWEEN :startDate AND :endDate " +
-           "AND o.status NOT IN ('CANCELLED', 'REFUNDED') " +
-           "GROUP BY FUNCTION('DATE', o.createdAt) ORDER BY FUNCTION('DATE', o.createdAt)")
-    List<Object[]> getDailySalesReport(@Param("startDate") LocalDateTime startDate, 
-                                        @Param("endDate") LocalDateTime endDate);
-
-    @Query("SELECT FUNCTION('MONTH', o.createdAt), SUM(o.totalAmount), COUNT(o) FROM Order o " +
-           "WHERE o.createdAt BETWEEN :startDate AND :endDate " +
-           "AND o.status NOT IN ('CANCELLED', 'REFUNDED') " +
-           "GROUP BY FUNCTION('MONTH', o.createdAt) ORDER BY FUNCTION('MONTH', o.createdAt)")
-    List<Object[]> getMonthlySalesReport(@Param("startDate") LocalDateTime startDate, 
-                                          @Param("endDate") LocalDateTime endDate);
+    // Sales rollup contribution of one order: [categoryId (0 = none), merchandise revenue, units].
+    // Lines keep the category they were sold under; the product's current one only covers lines not yet backfilled.
+    @Query("SELECT COALESCE(i.categoryId, c.id, 0), SUM(i.unitPrice * i.quantity), SUM(i.quantity) " +
+           "FROM OrderItem i JOIN i.product p LEFT JOIN p.category c WHERE i.order.id = :orderId " +
+           "GROUP BY COALESCE(i.categoryId, c.id, 0)")
+    List<Object[]> sumItemsByCategory(@Param("orderId") Long orderId);
+
+    // Order lines placed before lines recorded their category take their product's current one
+    @Modifying
+    @Query(value = "UPDATE order_items SET category_id = COALESCE(" +
+            "(SELECT p.category_id FROM products p WHERE p.id = order_items.product_id), 0) " +
+            "WHERE category_id IS NULL", nativeQuery = true)
+    int backfillItemCategories();
+
+    @Query("SELECT MIN(o.createdAt) FROM Order o")
+    LocalDateTime findEarliestCreatedAt();
+
+    // Sketch rebuild input: [createdAt, userId, totalAmount] of hot and archived orders in a range
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "5000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = "SELECT created_at, user_id, total_amount FROM orders " +
+            "WHERE created_at >= :fromTime AND created_at < :toTime " +
+            "UNION ALL SELECT created_at, user_id, total_amount FROM orders_archive " +
+            "WHERE created_at >= :fromTime AND created_at < :toTime", nativeQuery = true)
+    Stream<Object[]> streamOrderValues(@Param("fromTime") LocalDateTime fromTime, @Param("toTime") LocalDateTime toTime);
+
+    // Columnar snapshot input: [id, createdAt, userId, status, totalAmount] of hot and archived orders changed since a watermark
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "5000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = "SELECT id, created_at, user_id, status, total_amount FROM orders WHERE updated_at >= :since " +
+            "UNION ALL SELECT id, created_at, user_id, status, total_amount FROM orders_archive WHERE updated_at >= :since",
+            nativeQuery = true)
+    Stream<Object[]> streamOrderFactsChangedSince(@Param("since") LocalDateTime since);
+
+    // Lines of orders created since a watermark: [orderId, productId, quantity, unitPrice]
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "5000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = "SELECT oi.order_id, oi.product_id, oi.quantity, oi.unit_price FROM order_items oi " +
+            "JOIN orders o ON o.id = oi.order_id WHERE o.created_at >= :since " +
+            "UNION ALL SELECT oi.order_id, oi.product_id, oi.quantity, oi.unit_price FROM order_items_archive oi " +
+            "JOIN orders_archive o ON o.id = oi.order_id WHERE o.created_at >= :since", nativeQuery = true)
+    Stream<Object[]> streamItemFactsOfOrdersCreatedSince(@Param("since") LocalDateTime since);
+
+    @Query(value = "SELECT o.created_at, oi.product_id, oi.product_name, oi.quantity, oi.unit_price FROM order_items oi " +
+            "JOIN orders o ON o.id = oi.order_id WHERE o.created_at >= :since " +
+            "UNION ALL SELECT o.created_at, oi.product_id, oi.product_name, oi.quantity, oi.unit_price FROM order_items_archive oi " +
+            "JOIN orders_archive o ON o.id = oi.order_id WHERE o.created_at >= :since", nativeQuery = true)
+    Stream<Object[]> streamItemSalesSince(@Param("since") LocalDateTime since);
 
     @Query("SELECT COUNT(o) FROM Order o")
     long countTotalOrders();
@@ -67,5 +158,80 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT AVG(o.totalAmount) FROM Order o WHERE o.status NOT IN ('CANCELLED', 'REFUNDED')")
     BigDecimal calculateAverageOrderValue();
 
+    @Query("SELECT COUNT(o) FROM Order o WHERE o.status NOT IN ('CANCELLED', 'REFUNDED')")
+    long countRevenueOrders();
+
+    // Oldest-first finished orders for the archival job
+    @Query("SELECT o.id FROM Order o WHERE o.status IN :statuses AND o.updatedAt < :cutoff ORDER BY o.id")
+    List<Long> findArchivableIds(@Param("statuses") Collection<OrderStatus> statuses,
+                                 @Param("cutoff") LocalDateTime cutoff,
+                                 Pageable pageable);
+
     List<Order> findTop10ByOrderByCreatedAtDesc();
+
+    // Bulk status transitions: set-based, guarded by the allowed predecessor statuses
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :status, o.updatedAt = :now " +
+           "WHERE o.id IN :ids AND o.status IN :fromStatuses")
+    int transitionStatus(@Param("ids") Collection<Long> ids,
+                         @Param("fromStatuses") Collection<OrderStatus> fromStatuses,
+                         @Param("status") OrderStatus status,
+                         @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :status, o.updatedAt = :now, o.shippedAt = :now " +
+           "WHERE o.id IN :ids AND o.status IN :fromStatuses")
+    int transitionStatusShipped(@Param("ids") Collection<Long> ids,
+                                @Param("fromStatuses") Collection<OrderStatus> fromStatuses,
+                                @Param("status") OrderStatus status,
+                                @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :status, o.updatedAt = :now, o.deliveredAt = :now " +
+           "WHERE o.id IN :ids AND o.status IN :fromStatuses")
+    int transitionStatusDelivered(@Param("ids") Collection<Long> ids,
+                                  @Param("fromStatuses") Collection<OrderStatus> fromStatuses,
+                                  @Param("status") OrderStatus status,
+                                  @Param("now") LocalDateTime now);
+
+    @Query("SELECT o.status, COUNT(o) FROM Order o WHERE o.id IN :ids AND o.status IN :statuses GROUP BY o.status")
+    List<Object[]> countByIdInAndStatusIn(@Param("ids") Collection<Long> ids,
+                                          @Param("statuses") Collection<OrderStatus> statuses);
+
+    // Reads back exactly the rows a bulk transition touched (same status + updatedAt stamp)
+    @Query("SELECT o.id AS id, o.orderNumber AS orderNumber, u.email AS customerEmail " +
+           "FROM Order o JOIN o.user u WHERE o.id IN :ids AND o.status = :status AND o.updatedAt = :now")
+    List<NotificationView> findTransitioned(@Param("ids") Collection<Long> ids,
+                                            @Param("status") OrderStatus status,
+                                            @Param("now") LocalDateTime now);
+
+    /**
+     * Minimal order projection for customer notifications.
+     */
+    interface NotificationView {
+        Long getId();
+
+        String getOrderNumber();
+
+        String getCustomerEmail();
+    }
+
+    // Purchase index: distinct (user, product) pairs of delivered orders, hot and archived
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "5000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = "SELECT o.user_id, oi.product_id FROM orders o JOIN order_items oi ON oi.order_id = o.id " +
+            "WHERE o.status = 'DELIVERED' " +
+            "UNION SELECT o.user_id, oi.product_id FROM orders_archive o JOIN order_items_archive oi ON oi.order_id = o.id " +
+            "WHERE o.status = 'DELIVERED'", nativeQuery = true)
+    Stream<Object[]> streamDeliveredPurchasePairs();
+
+    @Query("SELECT DISTINCT o.user.id, i.productId FROM Order o JOIN o.items i " +
+           "WHERE o.id IN :ids AND o.status = com.ashu.E_Commerece.model.OrderStatus.DELIVERED")
+    List<Object[]> findDeliveredPurchasePairs(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT COUNT(o) > 0 FROM Order o JOIN o.items i WHERE o.user.id = :userId AND i.productId = :productId " +
+           "AND o.status = com.ashu.E_Commerece.model.OrderStatus.DELIVERED")
+    boolean existsDeliveredPurchase(@Param("userId") Long userId, @Param("productId") Long productId);
 }
@@ -0,0 +1,19 @@
+package com.ashu.E_Commerece.repository;
+
+import com.ashu.E_Commerece.model.Order;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Order search queries that select keys only; specification queries through
+ * {@code JpaSpecificationExecutor} always load whole entities.
+ */
+public interface OrderSearchRepository {
+
+    /**
+     * (id, createdAt) of the first {@code limit} orders matching {@code spec},
+     * newest first with id as the tiebreak: the keyset order of admin search.
+     */
+    List<Object[]> findSearchKeys(Specification<Order> spec, int limit);
+}
@@ -0,0 +1,49 @@
+package com.ashu.E_Commerece.repository;
+
+import com.ashu.E_Commerece.model.OutboxEvent;
+import com.ashu.E_Commerece.model.OutboxStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for OutboxEvent entity operations.
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Locks a batch of due events. Lock timeout -2 renders as SKIP LOCKED, so
+     * concurrent dispatchers claim disjoint batches instead of blocking.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OutboxEvent e WHERE e.status IN :statuses AND e.nextAttemptAt <= :now " +
+           "ORDER BY e.nextAttemptAt")
+    List<OutboxEvent> findDueForDispatch(@Param("statuses") Collection<OutboxStatus> statuses,
+                                         @Param("now") LocalDateTime now,
+                                         Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = :status, e.processedAt = :now WHERE e.id IN :ids")
+    int markProcessed(@Param("ids") Collection<Long> ids,
+                      @Param("status") OutboxStatus status,
+                      @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = :status, e.nextAttemptAt = :nextAttemptAt, " +
+           "e.lastError = :error WHERE e.id = :id")
+    int markFailed(@Param("id") Long id,
+                   @Param("status") OutboxStatus status,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                   @Param("error") String error);
+
+    long countByStatus(OutboxStatus status);
+}
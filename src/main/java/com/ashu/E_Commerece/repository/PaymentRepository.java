@@ -0,0 +1,90 @@
+package com.ashu.E_Commerece.repository;
+
+import com.ashu.E_Commerece.model.Payment;
+import com.ashu.E_Commerece.model.PaymentStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Repository for the payment ledger.
+ */
+@Repository
+public interface PaymentRepository extends JpaRepository<Payment, Long> {
+
+    /**
+     * Minimal ledger columns needed to reconcile against a settlement file.
+     */
+    interface SettlementView {
+        Long getId();
+        String getPaymentId();
+        Long getOrderId();
+        BigDecimal getAmount();
+        PaymentStatus getStatus();
+    }
+
+    Optional<Payment> findByPaymentId(String paymentId);
+
+    // Payments recorded only on orders.payment_id / orders_archive.payment_id, from before the ledger existed
+    @Query(value = "SELECT o.payment_id, o.id, o.total_amount, o.payment_method, o.updated_at FROM orders o " +
+            "WHERE o.payment_id IS NOT NULL AND NOT EXISTS (SELECT 1 FROM payments p WHERE p.payment_id = o.payment_id) " +
+            "UNION ALL SELECT o.payment_id, o.id, o.total_amount, o.payment_method, o.updated_at FROM orders_archive o " +
+            "WHERE o.payment_id IS NOT NULL AND NOT EXISTS (SELECT 1 FROM payments p WHERE p.payment_id = o.payment_id) " +
+            "LIMIT :limit", nativeQuery = true)
+    List<Object[]> findUnrecordedLegacyPayments(@Param("limit") int limit);
+
+    // Serializes duplicate/concurrent callbacks for the same payment
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Payment p WHERE p.paymentId = :paymentId")
+    Optional<Payment> findByPaymentIdForUpdate(@Param("paymentId") String paymentId);
+
+    List<Payment> findByOrderIdOrderByAttemptAsc(Long orderId);
+
+    int countByOrderId(Long orderId);
+
+    boolean existsByOrderIdAndStatus(Long orderId, PaymentStatus status);
+
+    @Modifying
+    @Query("UPDATE Payment p SET p.status = com.ashu.E_Commerece.model.PaymentStatus.FAILED, " +
+           "p.failureReason = :reason, p.completedAt = :now, p.updatedAt = :now " +
+           "WHERE p.paymentId = :paymentId AND p.status = com.ashu.E_Commerece.model.PaymentStatus.PENDING")
+    int markFailedIfPending(@Param("paymentId") String paymentId, @Param("reason") String reason,
+                            @Param("now") LocalDateTime now);
+
+    // Pending attempts whose callback never arrived
+    @Modifying
+    @Query("UPDATE Payment p SET p.status = com.ashu.E_Commerece.model.PaymentStatus.FAILED, " +
+           "p.failureReason = :reason, p.completedAt = :now, p.updatedAt = :now " +
+           "WHERE p.status = com.ashu.E_Commerece.model.PaymentStatus.PENDING AND p.createdAt < :cutoff")
+    int failStalePending(@Param("cutoff") LocalDateTime cutoff, @Param("reason") String reason,
+                         @Param("now") LocalDateTime now);
+
+    // Reconciliation: one IN lookup per settlement chunk on the unique payment_id index
+    @Query("SELECT p.id AS id, p.paymentId AS paymentId, p.orderId AS orderId, p.amount AS amount, " +
+           "p.status AS status FROM Payment p WHERE p.paymentId IN :paymentIds")
+    List<SettlementView> findSettlementViews(@Param("paymentIds") Collection<String> paymentIds);
+
+    // Reconciliation: ledger successes of the settlement day, streamed forward-only
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p.id AS id, p.paymentId AS paymentId, p.orderId AS orderId, p.amount AS amount, " +
+           "p.status AS status FROM Payment p WHERE p.status = com.ashu.E_Commerece.model.PaymentStatus.SUCCESS " +
+           "AND p.completedAt >= :from AND p.completedAt < :to ORDER BY p.id")
+    Stream<SettlementView> streamSucceededBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
@@ -5,12 +5,15 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository for Product entity operations with advanced querying.
@@ -18,6 +21,21 @@ import java.util.List;
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
 
+    /**
+     * Denormalized rating aggregates of one product.
+     */
+    interface RatingAggregates {
+        Long getId();
+        BigDecimal getAverageRating();
+        Integer getReviewCount();
+        Integer getOneStarCount();
+        Integer getTwoStarCount();
+        Integer getThreeStarCount();
+        Integer getFourStarCount();
+        Integer getFiveStarCount();
+        Boolean getFeatured();
+    }
+
     Page<Product> findByCategoryId(Long categoryId, Pageable pageable);
 
     Page<Product> findByActiveTrue(Pageable pageable);
@@ -49,11 +67,71 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
     @Query("SELECT p FROM Product p WHERE p.active = true AND p.stockQuantity < :threshold")
     List<Product> findLowStockProducts(@Param("threshold") int threshold);
 
+    @Query("SELECT p.id, p.name, p.stockQuantity, p.active FROM Product p")
+    List<Object[]> findStockLevels();
+
     @Query("SELECT COUNT(p) FROM Product p WHERE p.active = true")
     long countActiveProducts();
 
     @Query("SELECT p.category.name, COUNT(p) FROM Product p WHERE p.active = true GROUP BY p.category.name")
     List<Object[]> countProductsByCategory();
 
+    // Columnar snapshot dimension, reloaded whole: [id, name, categoryId, categoryName, active, stockQuantity, averageRating]
+    @Query("SELECT p.id, p.name, c.id, c.name, p.active, p.stockQuantity, p.averageRating FROM Product p LEFT JOIN p.category c")
+    List<Object[]> findSnapshotDimensions();
+
     boolean existsBySku(String sku);
+
+    @Query("SELECT p.id AS id, p.averageRating AS averageRating, p.reviewCount AS reviewCount, " +
+           "p.oneStarCount AS oneStarCount, p.twoStarCount AS twoStarCount, p.threeStarCount AS threeStarCount, " +
+           "p.fourStarCount AS fourStarCount, p.fiveStarCount AS fiveStarCount, p.featured AS featured " +
+           "FROM Product p WHERE p.id = :id")
+    Optional<RatingAggregates> findRatingAggregates(@Param("id") Long id);
+
+    @Query("SELECT p.id AS id, p.averageRating AS averageRating, p.reviewCount AS reviewCount, " +
+           "p.oneStarCount AS oneStarCount, p.twoStarCount AS twoStarCount, p.threeStarCount AS threeStarCount, " +
+           "p.fourStarCount AS fourStarCount, p.fiveStarCount AS fiveStarCount, p.featured AS featured " +
+           "FROM Product p WHERE p.id IN :ids")
+    List<RatingAggregates> findRatingAggregatesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Applies one review write to the rating aggregates in a single atomic
+     * UPDATE. {@code added}/{@code removed} are the star values entering and
+     * leaving the product (0 for none): create is (r, 0), delete (0, r) and an
+     * edit (new, old). SET expressions read the pre-update row, so the average
+     * is derived from the new sum and count in the same statement.
+     */
+    @Modifying
+    @Query(value = "UPDATE products SET " +
+            "rating_sum = rating_sum + :added - :removed, " +
+            "review_count = review_count + SIGN(:added) - SIGN(:removed), " +
+            "one_star_count = one_star_count + CASE WHEN :added = 1 THEN 1 ELSE 0 END - CASE WHEN :removed = 1 THEN 1 ELSE 0 END, " +
+            "two_star_count = two_star_count + CASE WHEN :added = 2 THEN 1 ELSE 0 END - CASE WHEN :removed = 2 THEN 1 ELSE 0 END, " +
+            "three_star_count = three_star_count + CASE WHEN :added = 3 THEN 1 ELSE 0 END - CASE WHEN :removed = 3 THEN 1 ELSE 0 END, " +
+            "four_star_count = four_star_count + CASE WHEN :added = 4 THEN 1 ELSE 0 END - CASE WHEN :removed = 4 THEN 1 ELSE 0 END, " +
+            "five_star_count = five_star_count + CASE WHEN :added = 5 THEN 1 ELSE 0 END - CASE WHEN :removed = 5 THEN 1 ELSE 0 END, " +
+            "average_rating = CASE WHEN review_count + SIGN(:added) - SIGN(:removed) > 0 " +
+            "THEN ROUND(CAST(rating_sum + :added - :removed AS DECIMAL(19, 4)) / (review_count + SIGN(:added) - SIGN(:removed)), 2) " +
+            "ELSE 0 END " +
+            "WHERE id = :productId", nativeQuery = true)
+    int applyRatingChange(@Param("productId") Long productId, @Param("added") int added, @Param("removed") int removed);
+
+    // One-time migration of rows whose aggregates disagree with their reviews: rows that predate
+    // the aggregate columns, or that drifted before the columns were excluded from entity saves
+    @Modifying
+    @Query(value = "UPDATE products p SET " +
+            "review_count = (SELECT COUNT(*) FROM reviews r WHERE r.product_id = p.id), " +
+            "average_rating = COALESCE((SELECT ROUND(CAST(AVG(CAST(r.rating AS DECIMAL(19, 4))) AS DECIMAL(19, 4)), 2) " +
+            "FROM reviews r WHERE r.product_id = p.id), 0), " +
+            "rating_sum = (SELECT COALESCE(SUM(r.rating), 0) FROM reviews r WHERE r.product_id = p.id), " +
+            "one_star_count = (SELECT COUNT(*) FROM reviews r WHERE r.product_id = p.id AND r.rating = 1), " +
+            "two_star_count = (SELECT COUNT(*) FROM reviews r WHERE r.product_id = p.id AND r.rating = 2), " +
+            "three_star_count = (SELECT COUNT(*) FROM reviews r WHERE r.product_id = p.id AND r.rating = 3), " +
+            "four_star_count = (SELECT COUNT(*) FROM reviews r WHERE r.product_id = p.id AND r.rating = 4), " +
+            "five_star_count = (SELECT COUNT(*) FROM reviews r WHERE r.product_id = p.id AND r.rating = 5) " +
+            "WHERE p.review_count <> (SELECT COUNT(*) FROM reviews r WHERE r.product_id = p.id) " +
+            "OR p.rating_sum <> (SELECT COALESCE(SUM(r.rating), 0) FROM reviews r WHERE r.product_id = p.id) " +
+            "OR p.one_star_count + p.two_star_count + p.three_star_count + p.four_star_count + p.five_star_count " +
+            "<> p.review_count", nativeQuery = true)
+    int backfillRatingAggregates();
 }
@@ -4,10 +4,12 @@ import com.ashu.E_Commerece.model.Review;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Optional;
 
 /**
@@ -18,6 +20,8 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
 
     Page<Review> findByProductId(Long productId, Pageable pageable);
 
+    Page<Review> findByProductIdAndVerifiedTrue(Long productId, Pageable pageable);
+
     Page<Review> findByUserId(Long userId, Pageable pageable);
 
     Optional<Review> findByUserIdAndProductId(Long userId, Long productId);
@@ -32,4 +36,20 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
 
     @Query("SELECT r.rating, COUNT(r) FROM Review r WHERE r.product.id = :productId GROUP BY r.rating")
     Object[][] getRatingDistributionByProductId(@Param("productId") Long productId);
+
+    // Reviews written before the purchase was delivered become verified on delivery
+    @Modifying
+    @Query("UPDATE Review r SET r.verified = true WHERE r.user.id = :userId AND r.product.id IN :productIds " +
+           "AND r.verified = false")
+    int markVerified(@Param("userId") Long userId, @Param("productIds") Collection<Long> productIds);
+
+    // One-time migration for reviews that predate verification; markVerified keeps later ones current
+    @Modifying
+    @Query(value = "UPDATE reviews r SET verified = TRUE WHERE verified = FALSE AND (" +
+            "EXISTS (SELECT 1 FROM orders o JOIN order_items oi ON oi.order_id = o.id " +
+            "WHERE o.user_id = r.user_id AND oi.product_id = r.product_id AND o.status = 'DELIVERED') OR " +
+            "EXISTS (SELECT 1 FROM orders_archive o JOIN order_items_archive oi ON oi.order_id = o.id " +
+            "WHERE o.user_id = r.user_id AND oi.product_id = r.product_id AND o.status = 'DELIVERED'))",
+            nativeQuery = true)
+    int backfillVerified();
 }
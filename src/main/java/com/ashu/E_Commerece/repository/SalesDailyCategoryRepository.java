@@ -0,0 +1,56 @@
+package com.ashu.E_Commerece.repository;
+
+import com.ashu.E_Commerece.model.SalesDailyCategory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository for the day x category sales rollup.
+ */
+@Repository
+public interface SalesDailyCategoryRepository extends JpaRepository<SalesDailyCategory, SalesDailyCategory.Key> {
+
+    @Modifying
+    @Query("UPDATE SalesDailyCategory s SET s.revenue = s.revenue + :revenue, s.unitsSold = s.unitsSold + :units " +
+           "WHERE s.salesDate = :date AND s.categoryId = :categoryId")
+    int increment(@Param("date") LocalDate date, @Param("categoryId") Long categoryId,
+                  @Param("revenue") BigDecimal revenue, @Param("units") long units);
+
+    @Modifying
+    @Query(value = "INSERT INTO sales_daily_category (sales_date, category_id, revenue, units_sold) " +
+            "SELECT CAST(:date AS DATE), :categoryId, 0, 0 WHERE NOT EXISTS " +
+            "(SELECT 1 FROM sales_daily_category WHERE sales_date = :date AND category_id = :categoryId)",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("date") LocalDate date, @Param("categoryId") Long categoryId);
+
+    // Totals per category over a range: [categoryId, revenue, units]
+    @Query("SELECT s.categoryId, SUM(s.revenue), SUM(s.unitsSold) FROM SalesDailyCategory s " +
+           "WHERE s.salesDate BETWEEN :from AND :to GROUP BY s.categoryId ORDER BY SUM(s.revenue) DESC")
+    List<Object[]> sumByCategoryBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Modifying
+    @Query(value = "DELETE FROM sales_daily_category WHERE sales_date BETWEEN :from AND :to", nativeQuery = true)
+    int deleteBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Modifying
+    @Query(value = "INSERT INTO sales_daily_category (sales_date, category_id, revenue, units_sold) " +
+            "SELECT d, category_id, SUM(line_total), SUM(quantity) FROM (" +
+            "SELECT CAST(o.created_at AS DATE) AS d, COALESCE(oi.category_id, p.category_id, 0) AS category_id, " +
+            "oi.unit_price * oi.quantity AS line_total, oi.quantity " +
+            "FROM orders o JOIN order_items oi ON oi.order_id = o.id LEFT JOIN products p ON p.id = oi.product_id " +
+            "WHERE o.status NOT IN ('CANCELLED', 'REFUNDED') AND o.created_at >= :fromTime AND o.created_at < :toTime " +
+            "UNION ALL SELECT CAST(o.created_at AS DATE), COALESCE(oi.category_id, p.category_id, 0), " +
+            "oi.unit_price * oi.quantity, oi.quantity " +
+            "FROM orders_archive o JOIN order_items_archive oi ON oi.order_id = o.id LEFT JOIN products p ON p.id = oi.product_id " +
+            "WHERE o.status NOT IN ('CANCELLED', 'REFUNDED') AND o.created_at >= :fromTime AND o.created_at < :toTime" +
+            ") t GROUP BY d, category_id", nativeQuery = true)
+    int rebuildBetween(@Param("fromTime") LocalDateTime fromTime, @Param("toTime") LocalDateTime toTime);
+}
@@ -0,0 +1,64 @@
+package com.ashu.E_Commerece.repository;
+
+import com.ashu.E_Commerece.model.SalesDaily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository for the daily sales rollup: delta maintenance, range reads and
+ * the set-based rebuild used by the backfill job.
+ */
+@Repository
+public interface SalesDailyRepository extends JpaRepository<SalesDaily, LocalDate> {
+
+    @Modifying
+    @Query("UPDATE SalesDaily s SET s.orderCount = s.orderCount + :orders, " +
+           "s.revenueOrderCount = s.revenueOrderCount + :revenueOrders, s.revenue = s.revenue + :revenue " +
+           "WHERE s.salesDate = :date")
+    int increment(@Param("date") LocalDate date, @Param("orders") long orders,
+                  @Param("revenueOrders") long revenueOrders, @Param("revenue") BigDecimal revenue);
+
+    @Modifying
+    @Query(value = "INSERT INTO sales_daily (sales_date, order_count, revenue_order_count, revenue) " +
+            "SELECT CAST(:date AS DATE), 0, 0, 0 WHERE NOT EXISTS (SELECT 1 FROM sales_daily WHERE sales_date = :date)",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("date") LocalDate date);
+
+    // Totals over a range: [orders, revenueOrders, revenue]
+    @Query("SELECT COALESCE(SUM(s.orderCount), 0), COALESCE(SUM(s.revenueOrderCount), 0), COALESCE(SUM(s.revenue), 0) " +
+           "FROM SalesDaily s WHERE s.salesDate BETWEEN :from AND :to")
+    List<Object[]> sumBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    List<SalesDaily> findBySalesDateBetweenOrderBySalesDateAsc(LocalDate from, LocalDate to);
+
+    // Monthly series folded from daily rows: [year, month, orders, revenue]
+    @Query("SELECT YEAR(s.salesDate), MONTH(s.salesDate), SUM(s.orderCount), SUM(s.revenue) FROM SalesDaily s " +
+           "WHERE s.salesDate BETWEEN :from AND :to " +
+           "GROUP BY YEAR(s.salesDate), MONTH(s.salesDate) ORDER BY YEAR(s.salesDate), MONTH(s.salesDate)")
+    List<Object[]> sumByMonthBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Backfill: replace a range with totals recomputed from hot and archived orders
+    @Modifying
+    @Query(value = "DELETE FROM sales_daily WHERE sales_date BETWEEN :from AND :to", nativeQuery = true)
+    int deleteBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Modifying
+    @Query(value = "INSERT INTO sales_daily (sales_date, order_count, revenue_order_count, revenue) " +
+            "SELECT d, COUNT(*), SUM(counted), COALESCE(SUM(counted * total_amount), 0) FROM (" +
+            "SELECT CAST(created_at AS DATE) AS d, total_amount, " +
+            "CASE WHEN status IN ('CANCELLED', 'REFUNDED') THEN 0 ELSE 1 END AS counted " +
+            "FROM orders WHERE created_at >= :fromTime AND created_at < :toTime " +
+            "UNION ALL SELECT CAST(created_at AS DATE), total_amount, " +
+            "CASE WHEN status IN ('CANCELLED', 'REFUNDED') THEN 0 ELSE 1 END " +
+            "FROM orders_archive WHERE created_at >= :fromTime AND created_at < :toTime" +
+            ") t GROUP BY d", nativeQuery = true)
+    int rebuildBetween(@Param("fromTime") LocalDateTime fromTime, @Param("toTime") LocalDateTime toTime);
+}
@@ -0,0 +1,34 @@
+package com.ashu.E_Commerece.repository;
+
+import com.ashu.E_Commerece.model.SalesSketch;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository for persisted per-day and per-month sales sketches.
+ */
+@Repository
+public interface SalesSketchRepository extends JpaRepository<SalesSketch, SalesSketch.Key> {
+
+    // Serializes merges into the same period across flushes and instances
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM SalesSketch s WHERE s.period = :period AND s.periodStart = :periodStart")
+    Optional<SalesSketch> findForUpdate(@Param("period") SalesSketch.Period period,
+                                        @Param("periodStart") LocalDate periodStart);
+
+    List<SalesSketch> findByPeriodAndPeriodStartBetween(SalesSketch.Period period, LocalDate from, LocalDate to);
+
+    @Modifying
+    @Query("DELETE FROM SalesSketch s WHERE s.period = :period AND s.periodStart BETWEEN :from AND :to")
+    int deleteBetween(@Param("period") SalesSketch.Period period, @Param("from") LocalDate from,
+                      @Param("to") LocalDate to);
+}
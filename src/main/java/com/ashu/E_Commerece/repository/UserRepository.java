@@ -2,9 +2,14 @@ package com.ashu.E_Commerece.repository;
 
 import com.ashu.E_Commerece.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository for User entity operations.
@@ -15,4 +20,30 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
 
     boolean existsByEmail(String email);
+
+    // Activity stamp, written at most once per resolution window per user
+    @Modifying
+    @Query("UPDATE User u SET u.lastActiveAt = :now " +
+           "WHERE u.id = :id AND (u.lastActiveAt IS NULL OR u.lastActiveAt < :staleBefore)")
+    int touchLastActive(@Param("id") Long id, @Param("now") LocalDateTime now,
+                        @Param("staleBefore") LocalDateTime staleBefore);
+
+    // Index range count on last_active_at: proportional to active users, not all users
+    @Query("SELECT COUNT(u) FROM User u WHERE u.lastActiveAt >= :since")
+    long countActiveSince(@Param("since") LocalDateTime since);
+
+    // Seeds missing stamps from the latest hot or archived order
+    @Modifying
+    @Query(value = "UPDATE users SET last_active_at = GREATEST(" +
+            "COALESCE((SELECT MAX(created_at) FROM orders o WHERE o.user_id = users.id), " +
+            "(SELECT MAX(created_at) FROM orders_archive a WHERE a.user_id = users.id)), " +
+            "COALESCE((SELECT MAX(created_at) FROM orders_archive a WHERE a.user_id = users.id), " +
+            "(SELECT MAX(created_at) FROM orders o WHERE o.user_id = users.id))) " +
+            "WHERE last_active_at IS NULL", nativeQuery = true)
+    int backfillLastActive();
+
+    // Columnar snapshot input: [id, role, createdAt, lastActiveAt] of users registered or active since a watermark
+    @Query(value = "SELECT id, role, created_at, last_active_at FROM users " +
+            "WHERE created_at >= :since OR last_active_at >= :since", nativeQuery = true)
+    Stream<Object[]> streamUserFactsChangedSince(@Param("since") LocalDateTime since);
 }
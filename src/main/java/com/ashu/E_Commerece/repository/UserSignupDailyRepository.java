@@ -0,0 +1,58 @@
+package com.ashu.E_Commerece.repository;
+
+import com.ashu.E_Commerece.model.Role;
+import com.ashu.E_Commerece.model.UserSignupDaily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repository for the day x role signup rollup.
+ */
+@Repository
+public interface UserSignupDailyRepository extends JpaRepository<UserSignupDaily, UserSignupDaily.Key> {
+
+    @Modifying
+    @Query("UPDATE UserSignupDaily s SET s.userCount = s.userCount + 1 WHERE s.signupDate = :date AND s.role = :role")
+    int increment(@Param("date") LocalDate date, @Param("role") Role role);
+
+    @Modifying
+    @Query(value = "INSERT INTO user_signups_daily (signup_date, role, user_count) " +
+            "SELECT CAST(:date AS DATE), :role, 0 WHERE NOT EXISTS " +
+            "(SELECT 1 FROM user_signups_daily WHERE signup_date = :date AND role = :role)", nativeQuery = true)
+    int insertIfAbsent(@Param("date") LocalDate date, @Param("role") String role);
+
+    // [role, users]
+    @Query("SELECT s.role, SUM(s.userCount) FROM UserSignupDaily s GROUP BY s.role")
+    List<Object[]> sumByRole();
+
+    @Query("SELECT COALESCE(SUM(s.userCount), 0) FROM UserSignupDaily s WHERE s.signupDate BETWEEN :from AND :to")
+    long sumBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Daily cohorts: [signupDate, users]
+    @Query("SELECT s.signupDate, SUM(s.userCount) FROM UserSignupDaily s WHERE s.signupDate BETWEEN :from AND :to " +
+           "GROUP BY s.signupDate ORDER BY s.signupDate")
+    List<Object[]> sumByDayBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Monthly cohorts folded from daily rows: [year, month, users]
+    @Query("SELECT YEAR(s.signupDate), MONTH(s.signupDate), SUM(s.userCount) FROM UserSignupDaily s " +
+           "WHERE s.signupDate BETWEEN :from AND :to " +
+           "GROUP BY YEAR(s.signupDate), MONTH(s.signupDate) ORDER BY YEAR(s.signupDate), MONTH(s.signupDate)")
+    List<Object[]> sumByMonthBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Rebuild: replace the whole rollup with counts recomputed from users
+    @Modifying
+    @Query(value = "DELETE FROM user_signups_daily", nativeQuery = true)
+    int deleteAllRows();
+
+    @Modifying
+    @Query(value = "INSERT INTO user_signups_daily (signup_date, role, user_count) " +
+            "SELECT d, role, COUNT(*) FROM (SELECT CAST(created_at AS DATE) AS d, role FROM users) t " +
+            "GROUP BY d, role", nativeQuery = true)
+    int rebuild();
+}
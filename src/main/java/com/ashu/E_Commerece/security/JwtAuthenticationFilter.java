@@ -39,10 +39,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             String jwt = getJwtFromRequest(request);
 
             // Only process if token present and valid - public endpoints proceed without
-            // token
-            if (StringUtils.hasText(jwt) && jwtUtil.validateToken(jwt)) {
-                String username = jwtUtil.getUsernameFromToken(jwt);
-
+            // token. Validation and subject extraction share one (cached) parse.
+            String username = StringUtils.hasText(jwt) ? jwtUtil.validateAndGetUsername(jwt) : null;
+            if (username != null) {
                 UserDetails userDetails = userDetailsService.loadUserByUsername(username);
 
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
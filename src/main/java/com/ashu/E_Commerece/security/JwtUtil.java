@@ -1,8 +1,12 @@
 package com.ashu.E_Commerece.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
@@ -11,6 +15,7 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Handles JWT token lifecycle: generation, parsing, and validation.
@@ -18,6 +23,8 @@ import java.util.Date;
  * secure.
  * Access tokens are short-lived (24h), refresh tokens longer (7d) for security
  * balance.
+ * The key and parser are built once; verified tokens are cached with their
+ * claims until they expire, so a client reusing its token skips the HMAC.
  */
 @Component
 @Slf4j
@@ -32,6 +39,41 @@ public class JwtUtil {
     @Value("${jwt.refresh-expiration}")
     private long refreshExpiration;
 
+    @Value("${jwt.claims-cache-size:10000}")
+    private long claimsCacheSize;
+
+    private SecretKey signingKey;
+    private JwtParser parser;
+    private Cache<String, Claims> verifiedClaims;
+
+    // Parsers are immutable and thread-safe, so one serves every request
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        parser = Jwts.parser().verifyWith(signingKey).build();
+        verifiedClaims = Caffeine.newBuilder()
+                .maximumSize(claimsCacheSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String token, Claims claims, long currentTime) {
+                        // Dropped the moment the token expires, so an expired token is never served from cache
+                        long remainingMs = claims.getExpiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMs));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String token, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
     public String generateToken(Authentication authentication) {
         UserDetails userDetails = (UserDetails) authentication.getPrincipal();
         return generateToken(userDetails.getUsername());
@@ -47,7 +89,7 @@ public class JwtUtil {
                 .subject(username)
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
@@ -60,18 +102,13 @@ public class JwtUtil {
                 .subject(username)
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
     public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-
-        return claims.getSubject();
+        Claims claims = verifiedClaims.getIfPresent(token);
+        return (claims != null ? claims : parser.parseSignedClaims(token).getPayload()).getSubject();
     }
 
     /**
@@ -79,12 +116,29 @@ public class JwtUtil {
      * for invalid tokens to allow graceful handling in filter chain.
      */
     public boolean validateToken(String token) {
+        return getVerifiedClaims(token) != null;
+    }
+
+    /**
+     * Validates the token and returns its subject in one parse, or null when
+     * the token is invalid.
+     */
+    public String validateAndGetUsername(String token) {
+        Claims claims = getVerifiedClaims(token);
+        return claims != null ? claims.getSubject() : null;
+    }
+
+    private Claims getVerifiedClaims(String token) {
+        Claims cached = verifiedClaims.getIfPresent(token);
+        if (cached != null) {
+            return cached;
+        }
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            if (claims.getExpiration() != null) {
+                verifiedClaims.put(token, claims);
+            }
+            return claims;
         } catch (MalformedJwtException ex) {
             log.error("Invalid JWT token");
         } catch (ExpiredJwtException ex) {
@@ -94,16 +148,10 @@ public class JwtUtil {
         } catch (IllegalArgumentException ex) {
             log.error("JWT claims string is empty");
         }
-        return false;
+        return null;
     }
 
     public long getExpirationInSeconds() {
         return jwtExpiration / 1000;
     }
-
-    // Decodes Base64 secret and creates HMAC-SHA signing key
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
 }
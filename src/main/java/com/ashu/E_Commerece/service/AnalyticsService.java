@@ -3,97 +3,357 @@ package com.ashu.E_Commerece.service;
 import com.ashu.E_Commerece.dto.analytics.ProductAnalytics;
 import com.ashu.E_Commerece.dto.analytics.SalesAnalytics;
 import com.ashu.E_Commerece.dto.analytics.UserAnalytics;
+import com.ashu.E_Commerece.exception.BadRequestException;
+import com.ashu.E_Commerece.model.Category;
 import com.ashu.E_Commerece.model.Role;
+import com.ashu.E_Commerece.repository.ArchivedOrderRepository;
+import com.ashu.E_Commerece.repository.CategoryRepository;
 import com.ashu.E_Commerece.repository.OrderRepository;
 import com.ashu.E_Commerece.repository.ProductRepository;
+import com.ashu.E_Commerece.repository.SalesDailyCategoryRepository;
+import com.ashu.E_Commerece.repository.SalesDailyRepository;
 import com.ashu.E_Commerece.repository.UserRepository;
+import com.ashu.E_Commerece.repository.UserSignupDailyRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+/**
+ * Admin dashboard analytics. Each view runs its independent aggregates
+ * concurrently on virtual threads, every query in its own short read-only
+ * transaction and connection, capped by analytics.parallelism so dashboards
+ * cannot drain the pool. Results are cached per view and day range for one
+ * analytics.cache-bucket-seconds window: a request after the window still
+ * gets the cached result while a single background reload refreshes it, and
+ * concurrent misses share one computation. With analytics.engine=columnar
+ * the views are computed from {@link ColumnarAnalyticsStore} instead, off
+ * the OLTP database.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AnalyticsService {
 
     private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
+    private final CategoryRepository categoryRepository;
+    private final SalesDailyRepository salesDailyRepository;
+    private final SalesDailyCategoryRepository salesDailyCategoryRepository;
+    private final SalesRollupService salesRollupService;
+    private final SalesSketchService salesSketchService;
+    private final UserSignupDailyRepository userSignupDailyRepository;
+    private final ColumnarAnalyticsStore columnarStore;
+    private final BestSellerService bestSellerService;
+    private final StockLevelService stockLevelService;
 
-    @Transactional(readOnly = true)
+    static final int MAX_DAILY_POINTS = 366;
+    private static final String ALL = "all";
+
+    private record DateRange(LocalDate from, LocalDate to) {
+    }
+
+    private ExecutorService queryExecutor;
+    private Semaphore queryPermits;
+    private LoadingCache<DateRange, SalesAnalytics> salesCache;
+    private LoadingCache<String, ProductAnalytics> productCache;
+    private LoadingCache<String, UserAnalytics> userCache;
+
+    @Value("${user-analytics.active-days:30}")
+    private int activeUserDays;
+
+    @Value("${user-analytics.cohort-days:30}")
+    private int signupCohortDays;
+
+    @Value("${user-analytics.cohort-months:12}")
+    private int signupCohortMonths;
+
+    // Analytics queries running at once across all requests
+    @Value("${analytics.parallelism:4}")
+    private int parallelism;
+
+    @Value("${analytics.cache-bucket-seconds:60}")
+    private long cacheBucketSeconds;
+
+    @Value("${analytics.cache-size:200}")
+    private long cacheSize;
+
+    @PostConstruct
+    void init() {
+        queryExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("analytics-", 0).factory());
+        queryPermits = new Semaphore(parallelism);
+        salesCache = bucketed(range -> computeSalesAnalytics(range.from(), range.to()));
+        productCache = bucketed(key -> withTopSellers(computeProductAnalytics()));
+        userCache = bucketed(key -> computeUserAnalytics());
+    }
+
+    @PreDestroy
+    void shutdownExecutor() {
+        queryExecutor.close();
+    }
+
+    // Stale after one bucket (next read triggers a background reload), gone after two
+    private <K, V> LoadingCache<K, V> bucketed(Function<K, V> loader) {
+        Duration bucket = Duration.ofSeconds(cacheBucketSeconds);
+        return Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .refreshAfterWrite(bucket)
+                .expireAfterWrite(bucket.multipliedBy(2))
+                .executor(queryExecutor)
+                .build(loader::apply);
+    }
+
+    /**
+     * Sales for the days covered by [startDate, endDate], read from the daily
+     * rollups: one row per day, monthly and category series folded in SQL.
+     * Unique buyers and order-value percentiles are approximate, merged from
+     * the sales sketches. The status breakdown is the current snapshot of all
+     * orders. Cached per day range, so "last month" requests share an entry.
+     */
     public SalesAnalytics getSalesAnalytics(LocalDateTime startDate, LocalDateTime endDate) {
-        BigDecimal totalRevenue = orderRepository.calculateTotalRevenue();
-        long totalOrders = orderRepository.countTotalOrders();
-        BigDecimal avgOrderValue = orderRepository.calculateAverageOrderValue();
+        LocalDate from = startDate.toLocalDate();
+        LocalDate to = endDate.toLocalDate();
+        if (from.isAfter(to)) {
+            throw new BadRequestException("'startDate' must not be after 'endDate'");
+        }
+        return salesCache.get(new DateRange(from, to));
+    }
+
+    private SalesAnalytics computeSalesAnalytics(LocalDate from, LocalDate to) {
+        // Long ranges keep the most recent days in the daily series; monthly covers the whole range
+        LocalDate dailyFrom = from.isBefore(to.minusDays(MAX_DAILY_POINTS - 1)) ? to.minusDays(MAX_DAILY_POINTS - 1) : from;
+        if (columnarStore.isReady()) {
+            return columnarStore.salesAnalytics(from, to, dailyFrom);
+        }
+
+        Future<Object[]> totalsQuery = query(() -> salesDailyRepository.sumBetween(from, to).get(0));
+        Future<List<Object[]>> hotStatusQuery = query(orderRepository::countOrdersByStatus);
+        Future<List<Object[]>> archivedStatusQuery = query(archivedOrderRepository::countOrdersByStatus);
+
+        Future<List<SalesAnalytics.DailySales>> dailyQuery = query(() -> salesDailyRepository
+            .findBySalesDateBetweenOrderBySalesDateAsc(dailyFrom, to).stream()
+            .map(day -> SalesAnalytics.DailySales.builder()
+                .date(day.getSalesDate().toString())
+                .revenue(day.getRevenue())
+                .orderCount(day.getOrderCount())
+                .build())
+            .collect(Collectors.toList()));
+
+        Future<List<SalesAnalytics.MonthlySales>> monthlyQuery = query(() -> salesDailyRepository.sumByMonthBetween(from, to).stream()
+            .map(row -> SalesAnalytics.MonthlySales.builder()
+                .month(YearMonth.of(((Number) row[0]).intValue(), ((Number) row[1]).intValue()).toString())
+                .orderCount(((Number) row[2]).longValue())
+                .revenue((BigDecimal) row[3])
+                .build())
+            .collect(Collectors.toList()));
+
+        Future<List<SalesAnalytics.CategorySales>> categoryQuery = query(() -> {
+            List<Object[]> categoryRows = salesDailyCategoryRepository.sumByCategoryBetween(from, to);
+            Map<Long, String> categoryNames = categoryRepository.findAllById(categoryRows.stream()
+                    .map(row -> ((Number) row[0]).longValue()).toList()).stream()
+                .collect(Collectors.toMap(Category::getId, Category::getName));
+            return categoryRows.stream()
+                .map(row -> {
+                    long categoryId = ((Number) row[0]).longValue();
+                    return SalesAnalytics.CategorySales.builder()
+                        .categoryId(categoryId)
+                        .categoryName(categoryNames.getOrDefault(categoryId, "Uncategorized"))
+                        .revenue((BigDecimal) row[1])
+                        .unitsSold(((Number) row[2]).longValue())
+                        .build();
+                })
+                .collect(Collectors.toList());
+        });
+
+        Future<SalesSketchService.Summary> sketchQuery = query(() -> salesSketchService.summarize(from, to));
+
+        Object[] totals = join(totalsQuery);
+        long totalOrders = ((Number) totals[0]).longValue();
+        long revenueOrders = ((Number) totals[1]).longValue();
+        BigDecimal totalRevenue = (BigDecimal) totals[2];
+        BigDecimal avgOrderValue = revenueOrders > 0
+                ? totalRevenue.divide(BigDecimal.valueOf(revenueOrders), 2, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO;
 
         Map<String, Long> ordersByStatus = new HashMap<>();
-        orderRepository.countOrdersByStatus().forEach(row -> 
-            ordersByStatus.put(row[0].toString(), ((Number) row[1]).longValue()));
+        join(hotStatusQuery).forEach(row ->
+            ordersByStatus.merge(row[0].toString(), ((Number) row[1]).longValue(), Long::sum));
+        join(archivedStatusQuery).forEach(row ->
+            ordersByStatus.merge(row[0].toString(), ((Number) row[1]).longValue(), Long::sum));
+
+        SalesSketchService.Summary sketch = join(sketchQuery);
 
         return SalesAnalytics.builder()
-                .totalRevenue(totalRevenue != null ? totalRevenue : BigDecimal.ZERO)
+                .totalRevenue(totalRevenue)
                 .totalOrders(totalOrders)
-                .averageOrderValue(avgOrderValue != null ? avgOrderValue : BigDecimal.ZERO)
+                .averageOrderValue(avgOrderValue)
                 .ordersByStatus(ordersByStatus)
-                .dailySales(new ArrayList<>())
-                .monthlySales(new ArrayList<>())
+                .dailySales(join(dailyQuery))
+                .monthlySales(join(monthlyQuery))
+                .categorySales(join(categoryQuery))
+                .uniqueBuyers(sketch.uniqueBuyers())
+                .orderValueP50(sketch.p50())
+                .orderValueP90(sketch.p90())
+                .orderValueP99(sketch.p99())
                 .build();
     }
 
-    @Transactional(readOnly = true)
+    public long rebuildSalesRollups(LocalDate from, LocalDate to) {
+        long days = salesRollupService.backfill(from, to);
+        salesCache.invalidateAll();
+        return days;
+    }
+
     public ProductAnalytics getProductAnalytics() {
-        long totalProducts = productRepository.count();
-        long activeProducts = productRepository.countActiveProducts();
-        long outOfStock = productRepository.findLowStockProducts(1).size();
+        return productCache.get(ALL);
+    }
 
-        Map<String, Long> productsByCategory = new HashMap<>();
-        productRepository.countProductsByCategory().forEach(row -> 
-            productsByCategory.put(row[0] != null ? row[0].toString() : "Uncategorized", 
-                                   ((Number) row[1]).longValue()));
+    // Top sellers come from the windowed sketches whichever engine built the rest
+    private ProductAnalytics withTopSellers(ProductAnalytics analytics) {
+        Map<String, List<ProductAnalytics.TopProduct>> byWindow = new LinkedHashMap<>();
+        for (BestSellerService.Window window : BestSellerService.Window.values()) {
+            byWindow.put(window.label(), bestSellerService.topSellers(window, 10).stream()
+                    .map(seller -> ProductAnalytics.TopProduct.builder()
+                            .id(seller.productId()).name(seller.name())
+                            .salesCount(seller.units()).revenue(seller.revenue()).build())
+                    .collect(Collectors.toList()));
+        }
+        analytics.setTopSellingByWindow(byWindow);
+        analytics.setTopSellingProducts(byWindow.get(BestSellerService.Window.WEEK.label()));
+        return analytics;
+    }
+
+    private ProductAnalytics computeProductAnalytics() {
+        if (columnarStore.isReady()) {
+            return columnarStore.productAnalytics();
+        }
+
+        Future<Long> totalQuery = query(productRepository::count);
+        Future<Long> activeQuery = query(productRepository::countActiveProducts);
 
-        List<ProductAnalytics.TopProduct> topRated = productRepository
+        Future<Map<String, Long>> byCategoryQuery = query(() -> {
+            Map<String, Long> productsByCategory = new HashMap<>();
+            productRepository.countProductsByCategory().forEach(row ->
+                productsByCategory.put(row[0] != null ? row[0].toString() : "Uncategorized",
+                                       ((Number) row[1]).longValue()));
+            return productsByCategory;
+        });
+
+        Future<List<ProductAnalytics.TopProduct>> topRatedQuery = query(() -> productRepository
             .findTop10ByActiveTrueOrderByAverageRatingDesc().stream()
             .map(p -> ProductAnalytics.TopProduct.builder()
                 .id(p.getId()).name(p.getName()).rating(p.getAverageRating()).build())
-            .collect(Collectors.toList());
-
-        List<ProductAnalytics.LowStockProduct> lowStock = productRepository
-            .findLowStockProducts(10).stream()
-            .map(p -> ProductAnalytics.LowStockProduct.builder()
-                .id(p.getId()).name(p.getName()).stockQuantity(p.getStockQuantity()).build())
-            .collect(Collectors.toList());
+            .collect(Collectors.toList()));
 
         return ProductAnalytics.builder()
-                .totalProducts(totalProducts)
-                .activeProducts(activeProducts)
-                .outOfStockProducts(outOfStock)
-                .productsByCategory(productsByCategory)
-                .topRatedProducts(topRated)
-                .lowStockProducts(lowStock)
+                .totalProducts(join(totalQuery))
+                .activeProducts(join(activeQuery))
+                .outOfStockProducts(stockLevelService.outOfStockCount())
+                .productsByCategory(join(byCategoryQuery))
+                .topRatedProducts(join(topRatedQuery))
+                .lowStockProducts(stockLevelService.lowStockProducts())
                 .build();
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * User totals, role breakdown and signup cohorts summed from the signup
+     * rollup; active users are those with a login or order in the last
+     * user-analytics.active-days.
+     */
     public UserAnalytics getUserAnalytics() {
-        long totalUsers = userRepository.count();
-        
+        return userCache.get(ALL);
+    }
+
+    private UserAnalytics computeUserAnalytics() {
+        if (columnarStore.isReady()) {
+            return columnarStore.userAnalytics(activeUserDays, signupCohortDays, signupCohortMonths);
+        }
+
+        LocalDate today = LocalDate.now();
+
+        Future<List<Object[]>> byRoleQuery = query(userSignupDailyRepository::sumByRole);
+        Future<Long> activeQuery = query(() -> userRepository.countActiveSince(LocalDateTime.now().minusDays(activeUserDays)));
+        Future<Long> newThisMonthQuery = query(() -> userSignupDailyRepository.sumBetween(today.withDayOfMonth(1), today));
+
+        Future<List<UserAnalytics.SignupCohort>> dailyQuery = query(() -> userSignupDailyRepository
+            .sumByDayBetween(today.minusDays(signupCohortDays - 1L), today).stream()
+            .map(row -> UserAnalytics.SignupCohort.builder()
+                .period(row[0].toString())
+                .newUsers(((Number) row[1]).longValue())
+                .build())
+            .collect(Collectors.toList()));
+
+        Future<List<UserAnalytics.SignupCohort>> monthlyQuery = query(() -> userSignupDailyRepository
+            .sumByMonthBetween(today.minusMonths(signupCohortMonths - 1L).withDayOfMonth(1), today).stream()
+            .map(row -> UserAnalytics.SignupCohort.builder()
+                .period(YearMonth.of(((Number) row[0]).intValue(), ((Number) row[1]).intValue()).toString())
+                .newUsers(((Number) row[2]).longValue())
+                .build())
+            .collect(Collectors.toList()));
+
         Map<String, Long> usersByRole = new HashMap<>();
-        usersByRole.put("USER", userRepository.findAll().stream()
-            .filter(u -> u.getRole() == Role.USER).count());
-        usersByRole.put("ADMIN", userRepository.findAll().stream()
-            .filter(u -> u.getRole() == Role.ADMIN).count());
+        for (Role role : Role.values()) {
+            usersByRole.put(role.name(), 0L);
+        }
+        join(byRoleQuery).forEach(row ->
+            usersByRole.put(row[0].toString(), ((Number) row[1]).longValue()));
+        long totalUsers = usersByRole.values().stream().mapToLong(Long::longValue).sum();
 
         return UserAnalytics.builder()
                 .totalUsers(totalUsers)
-                .activeUsers(totalUsers)
-                .newUsersThisMonth(0L)
+                .activeUsers(join(activeQuery))
+                .newUsersThisMonth(join(newThisMonthQuery))
                 .usersByRole(usersByRole)
+                .dailySignups(join(dailyQuery))
+                .monthlySignups(join(monthlyQuery))
                 .build();
     }
+
+    // Each repository call opens its own read-only transaction, so queries run on separate connections
+    private <T> Future<T> query(Callable<T> query) {
+        return queryExecutor.submit(() -> {
+            queryPermits.acquire();
+            try {
+                return query.call();
+            } finally {
+                queryPermits.release();
+            }
+        });
+    }
+
+    private static <T> T join(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while computing analytics", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Analytics query failed", ex.getCause());
+        }
+    }
 }
@@ -17,6 +17,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+
 /**
  * Service for authentication operations.
  */
@@ -29,6 +31,7 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
     private final AuthenticationManager authenticationManager;
+    private final UserRollupService userRollupService;
 
     /**
      * Register a new user.
@@ -48,9 +51,11 @@ public class AuthService {
                 .lastName(request.getLastName())
                 .phone(request.getPhone())
                 .role(Role.USER)
+                .lastActiveAt(LocalDateTime.now())
                 .build();
 
         user = userRepository.save(user);
+        userRollupService.userRegistered(user);
         log.info("User registered successfully: {}", user.getEmail());
 
         // Generate tokens
@@ -69,6 +74,7 @@ public class AuthService {
         );
 
         User user = (User) authentication.getPrincipal();
+        userRollupService.recordActivity(user.getId());
         log.info("User logged in successfully: {}", user.getEmail());
 
         String accessToken = jwtUtil.generateToken(authentication);
@@ -81,11 +87,11 @@ public class AuthService {
      * Refresh access token using refresh token.
      */
     public AuthResponse refreshToken(String refreshToken) {
-        if (!jwtUtil.validateToken(refreshToken)) {
+        String username = jwtUtil.validateAndGetUsername(refreshToken);
+        if (username == null) {
             throw new BadRequestException("Invalid refresh token");
         }
 
-        String username = jwtUtil.getUsernameFromToken(refreshToken);
         User user = userRepository.findByEmail(username)
                 .orElseThrow(() -> new BadRequestException("User not found"));
 
@@ -0,0 +1,247 @@
+package com.ashu.E_Commerece.service;
+
+import com.ashu.E_Commerece.exception.BadRequestException;
+import com.ashu.E_Commerece.model.Order;
+import com.ashu.E_Commerece.model.OrderItem;
+import com.ashu.E_Commerece.repository.OrderRepository;
+import com.ashu.E_Commerece.util.CountMinSketch;
+import com.ashu.E_Commerece.util.SpaceSaving;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Approximate best sellers over sliding windows, fed by order placement
+ * instead of a GROUP BY over order_items. Each window is a ring of time
+ * slices; a slice holds Count-Min sketches of units and revenue per product
+ * plus a Space-Saving set of its heaviest products. A query merges the live
+ * slices' sketches, estimates every candidate the slices tracked and ranks
+ * them by units. Memory is fixed by the sketch shape, whatever the catalog
+ * size or order volume. Seeded from the last week of orders on startup.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BestSellerService {
+
+    /**
+     * Sliding windows and the slices they are kept in.
+     */
+    public enum Window {
+        HOUR("1h", Duration.ofHours(1), 12),
+        DAY("24h", Duration.ofDays(1), 24),
+        WEEK("7d", Duration.ofDays(7), 28);
+
+        private final String label;
+        private final long sliceMillis;
+        private final int slices;
+
+        Window(String label, Duration length, int slices) {
+            this.label = label;
+            this.sliceMillis = length.toMillis() / slices;
+            this.slices = slices;
+        }
+
+        public String label() {
+            return label;
+        }
+
+        public static Window fromLabel(String label) {
+            for (Window window : values()) {
+                if (window.label.equalsIgnoreCase(label)) {
+                    return window;
+                }
+            }
+            throw new BadRequestException("Unknown best-seller window: " + label + " (use 1h, 24h or 7d)");
+        }
+    }
+
+    public record Seller(long productId, String name, long units, BigDecimal revenue) {
+    }
+
+    private final OrderRepository orderRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private final Map<Window, Ring> rings = new EnumMap<>(Window.class);
+    // Names as ordered, for products the sketches report; bounded by the catalog
+    private final Map<Long, String> names = new ConcurrentHashMap<>();
+
+    @Value("${best-sellers.candidates:100}")
+    private int candidates;
+
+    @Value("${best-sellers.sketch-depth:4}")
+    private int sketchDepth;
+
+    @Value("${best-sellers.sketch-width:1024}")
+    private int sketchWidth;
+
+    @PostConstruct
+    void init() {
+        for (Window window : Window.values()) {
+            rings.put(window, new Ring(window));
+        }
+    }
+
+    /**
+     * Counts a placed order's items once its transaction commits.
+     */
+    public void orderPlaced(Order order) {
+        long at = epochMillis(order.getCreatedAt());
+        List<OrderItem> items = List.copyOf(order.getItems());
+        Runnable record = () -> items.forEach(item -> record(at, item.getProduct().getId(), item.getProductName(),
+                item.getQuantity(), cents(item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity())))));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            record.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                record.run();
+            }
+        });
+    }
+
+    /**
+     * Estimated top sellers of the window by units, at most {@code limit}.
+     * Units and revenue are upper bounds within the sketch error.
+     */
+    public List<Seller> topSellers(Window window, int limit) {
+        return rings.get(window).top(System.currentTimeMillis(), limit);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        LocalDateTime since = LocalDateTime.now().minus(Duration.ofDays(7));
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        long items = readOnly.execute(status -> {
+            long count = 0;
+            try (Stream<Object[]> rows = orderRepository.streamItemSalesSince(since)) {
+                for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+                    int quantity = ((Number) row[3]).intValue();
+                    BigDecimal unitPrice = row[4] instanceof BigDecimal price ? price : new BigDecimal(row[4].toString());
+                    record(epochMillis(toLocalDateTime(row[0])), ((Number) row[1]).longValue(), (String) row[2],
+                            quantity, cents(unitPrice.multiply(BigDecimal.valueOf(quantity))));
+                    count++;
+                }
+            }
+            return count;
+        });
+        log.info("Seeded best sellers from {} order items since {}", items, since);
+    }
+
+    private void record(long at, long productId, String name, int units, long revenueCents) {
+        names.put(productId, name);
+        for (Ring ring : rings.values()) {
+            ring.add(at, productId, units, revenueCents);
+        }
+    }
+
+    private static long epochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * One window's slices, reused in place as time moves on.
+     */
+    private final class Ring {
+
+        private final Window window;
+        private final Slice[] slices;
+
+        Ring(Window window) {
+            this.window = window;
+            this.slices = new Slice[window.slices];
+            for (int i = 0; i < slices.length; i++) {
+                slices[i] = new Slice();
+            }
+        }
+
+        synchronized void add(long at, long productId, int units, long revenueCents) {
+            long index = at / window.sliceMillis;
+            long current = System.currentTimeMillis() / window.sliceMillis;
+            if (index <= current - slices.length || index > current) {
+                return;
+            }
+            Slice slice = slices[(int) (index % slices.length)];
+            if (slice.index != index) {
+                if (slice.index > index) {
+                    // The slot already moved on to a newer slice
+                    return;
+                }
+                slice.reset(index);
+            }
+            slice.units.add(productId, units);
+            slice.revenue.add(productId, revenueCents);
+            slice.heaviest.offer(productId, units);
+        }
+
+        synchronized List<Seller> top(long now, int limit) {
+            long current = now / window.sliceMillis;
+            CountMinSketch units = new CountMinSketch(sketchDepth, sketchWidth);
+            CountMinSketch revenue = new CountMinSketch(sketchDepth, sketchWidth);
+            Set<Long> keys = new HashSet<>();
+            for (Slice slice : slices) {
+                if (slice.index > current - slices.length && slice.index <= current) {
+                    units.merge(slice.units);
+                    revenue.merge(slice.revenue);
+                    slice.heaviest.entries().forEach(entry -> keys.add(entry.key()));
+                }
+            }
+            List<Seller> sellers = new ArrayList<>(keys.size());
+            for (long key : keys) {
+                sellers.add(new Seller(key, names.get(key), units.estimate(key), BigDecimal.valueOf(revenue.estimate(key), 2)));
+            }
+            sellers.sort(Comparator.comparingLong(Seller::units).reversed().thenComparing(Seller::productId));
+            return sellers.size() > limit ? List.copyOf(sellers.subList(0, limit)) : sellers;
+        }
+    }
+
+    private final class Slice {
+
+        private long index = Long.MIN_VALUE;
+        private final CountMinSketch units = new CountMinSketch(sketchDepth, sketchWidth);
+        private final CountMinSketch revenue = new CountMinSketch(sketchDepth, sketchWidth);
+        private final SpaceSaving heaviest = new SpaceSaving(candidates);
+
+        void reset(long newIndex) {
+            index = newIndex;
+            units.clear();
+            revenue.clear();
+            heaviest.clear();
+        }
+    }
+}
@@ -0,0 +1,858 @@
+package com.ashu.E_Commerece.service;
+
+import com.ashu.E_Commerece.dto.analytics.ProductAnalytics;
+import com.ashu.E_Commerece.dto.analytics.SalesAnalytics;
+import com.ashu.E_Commerece.dto.analytics.UserAnalytics;
+import com.ashu.E_Commerece.model.OrderStatus;
+import com.ashu.E_Commerece.model.Role;
+import com.ashu.E_Commerece.repository.OrderRepository;
+import com.ashu.E_Commerece.repository.ProductRepository;
+import com.ashu.E_Commerece.repository.UserRepository;
+import com.ashu.E_Commerece.util.LongHashSet;
+import com.ashu.E_Commerece.util.LongIntHashMap;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Embedded columnar copy of orders (hot and archived), order lines, users and
+ * products, used by {@link AnalyticsService} when analytics.engine=columnar so
+ * dashboard aggregates scan primitive arrays in this process instead of the
+ * OLTP database. A periodic sync reads only rows changed since the last
+ * watermark (re-reading an overlap window, since upserts are idempotent),
+ * applies them in place and appends them to a segment file on local disk;
+ * on restart the segments are replayed and syncing resumes incrementally.
+ * Products are a small dimension and are reloaded whole on each sync.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ColumnarAnalyticsStore {
+
+    private static final int MAGIC = 0x4F4C4150;
+    private static final int FORMAT_VERSION = 1;
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+    private static final Role[] ROLES = Role.values();
+
+    private final OrderRepository orderRepository;
+    private final UserRepository userRepository;
+    private final ProductRepository productRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final OrderColumns orders = new OrderColumns();
+    private final LongIntHashMap orderRows = new LongIntHashMap(1024);
+    private final LongHashSet ordersWithItems = new LongHashSet(1024);
+    private final ItemColumns items = new ItemColumns();
+    private final UserColumns users = new UserColumns();
+    private final LongIntHashMap userRows = new LongIntHashMap(1024);
+    private volatile Map<Long, ProductDim> products = Map.of();
+
+    private final AtomicBoolean syncing = new AtomicBoolean();
+    private TransactionTemplate readOnly;
+    private Path directory;
+    private LocalDateTime watermark;
+    private long nextSegment;
+    private int segmentCount;
+    private volatile boolean ready;
+
+    @Value("${analytics.engine:database}")
+    private String engine;
+
+    @Value("${analytics.columnar.directory:./analytics-data}")
+    private String directoryPath;
+
+    // Re-read window covering commit lag and clock skew between app and database
+    @Value("${analytics.columnar.overlap-seconds:300}")
+    private long overlapSeconds;
+
+    @Value("${analytics.columnar.max-segments:32}")
+    private int maxSegments;
+
+    record ProductDim(long id, String name, long categoryId, String categoryName,
+                      boolean active, int stockQuantity, BigDecimal averageRating) {
+    }
+
+    @PostConstruct
+    void init() {
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        directory = Paths.get(directoryPath).toAbsolutePath().normalize();
+    }
+
+    public boolean isEnabled() {
+        return "columnar".equalsIgnoreCase(engine);
+    }
+
+    /**
+     * Whether queries can be answered here; until the first sync finishes
+     * analytics keep reading the database.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Replays the local segments and catches up with the database off the
+     * startup thread.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!isEnabled()) {
+            return;
+        }
+        Thread.ofVirtual().name("columnar-analytics-loader").start(() -> {
+            try {
+                long started = System.currentTimeMillis();
+                replaySegments();
+                sync();
+                ready = true;
+                log.info("Columnar analytics store ready: {} orders, {} lines, {} users in {} ms",
+                        orders.size, items.size, users.size, System.currentTimeMillis() - started);
+            } catch (RuntimeException ex) {
+                log.error("Columnar analytics store failed to load; analytics stay on the database", ex);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.columnar.sync-interval-ms:60000}")
+    public void scheduledSync() {
+        if (ready) {
+            sync();
+        }
+    }
+
+    /**
+     * Pulls rows changed since the watermark, applies them and persists them
+     * as a new segment.
+     */
+    public void sync() {
+        if (!syncing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            LocalDateTime started = LocalDateTime.now();
+            LocalDateTime since = watermark == null ? BEGINNING : watermark.minusSeconds(overlapSeconds);
+            Delta delta = new Delta();
+            List<Object[]> productRows = readOnly.execute(status -> {
+                try (Stream<Object[]> rows = orderRepository.streamOrderFactsChangedSince(since)) {
+                    rows.forEach(delta::addOrder);
+                }
+                try (Stream<Object[]> rows = orderRepository.streamItemFactsOfOrdersCreatedSince(since)) {
+                    rows.forEach(delta::addItem);
+                }
+                try (Stream<Object[]> rows = userRepository.streamUserFactsChangedSince(since)) {
+                    rows.forEach(delta::addUser);
+                }
+                return productRepository.findSnapshotDimensions();
+            });
+            delta.watermark = started;
+
+            Delta changed = apply(delta);
+            products = productRows.stream().map(ColumnarAnalyticsStore::toProductDim)
+                    .collect(Collectors.toMap(ProductDim::id, product -> product));
+            if (!changed.isEmpty()) {
+                persist(changed);
+            }
+            log.debug("Columnar sync since {}: {} orders, {} lines, {} users changed",
+                    since, changed.orders.size, changed.items.size, changed.users.size);
+        } finally {
+            syncing.set(false);
+        }
+    }
+
+    /**
+     * Upserts the delta and returns the rows that actually changed the store,
+     * which is what gets persisted: the overlap window re-reads mostly known rows.
+     */
+    private Delta apply(Delta delta) {
+        Delta changed = new Delta();
+        changed.watermark = delta.watermark;
+        lock.writeLock().lock();
+        try {
+            OrderColumns o = delta.orders;
+            for (int i = 0; i < o.size; i++) {
+                int row = orderRows.get(o.id[i]);
+                if (row == LongIntHashMap.MISSING) {
+                    orderRows.put(o.id[i], orders.add(o.id[i], o.day[i], o.user[i], o.status[i], o.totalCents[i]));
+                } else if (!orders.matches(row, o.day[i], o.user[i], o.status[i], o.totalCents[i])) {
+                    orders.set(row, o.day[i], o.user[i], o.status[i], o.totalCents[i]);
+                } else {
+                    continue;
+                }
+                changed.orders.add(o.id[i], o.day[i], o.user[i], o.status[i], o.totalCents[i]);
+            }
+
+            // Lines never change after placement: take them once per order, whichever delta brings them first
+            ItemColumns it = delta.items;
+            for (int i = 0; i < it.size; i++) {
+                if (!ordersWithItems.contains(it.orderId[i])) {
+                    items.add(it.orderId[i], it.productId[i], it.quantity[i], it.lineCents[i]);
+                    changed.items.add(it.orderId[i], it.productId[i], it.quantity[i], it.lineCents[i]);
+                }
+            }
+            for (int i = 0; i < it.size; i++) {
+                ordersWithItems.add(it.orderId[i]);
+            }
+
+            UserColumns u = delta.users;
+            for (int i = 0; i < u.size; i++) {
+                int row = userRows.get(u.id[i]);
+                if (row == LongIntHashMap.MISSING) {
+                    userRows.put(u.id[i], users.add(u.id[i], u.role[i], u.signupDay[i], u.lastActive[i]));
+                } else if (!users.matches(row, u.role[i], u.signupDay[i], u.lastActive[i])) {
+                    users.set(row, u.role[i], u.signupDay[i], u.lastActive[i]);
+                } else {
+                    continue;
+                }
+                changed.users.add(u.id[i], u.role[i], u.signupDay[i], u.lastActive[i]);
+            }
+
+            if (watermark == null || delta.watermark.isAfter(watermark)) {
+                watermark = delta.watermark;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return changed;
+    }
+
+    // ===== Queries =====
+
+    public SalesAnalytics salesAnalytics(LocalDate from, LocalDate to, LocalDate dailyFrom) {
+        int fromDay = (int) from.toEpochDay();
+        int toDay = (int) to.toEpochDay();
+        int days = toDay - fromDay + 1;
+        Map<Long, ProductDim> productDims = products;
+
+        lock.readLock().lock();
+        try {
+            long totalOrders = 0;
+            long revenueOrders = 0;
+            long revenueCents = 0;
+            long[] statusCounts = new long[STATUSES.length];
+            long[] dayOrders = new long[days];
+            long[] dayRevenue = new long[days];
+            LongHashSet buyers = new LongHashSet(1024);
+            long[] values = new long[1024];
+            int valueCount = 0;
+
+            for (int r = 0; r < orders.size; r++) {
+                statusCounts[orders.status[r]]++;
+                int day = orders.day[r];
+                if (day < fromDay || day > toDay) {
+                    continue;
+                }
+                totalOrders++;
+                dayOrders[day - fromDay]++;
+                buyers.add(orders.user[r]);
+                if (valueCount == values.length) {
+                    values = Arrays.copyOf(values, valueCount * 2);
+                }
+                values[valueCount++] = orders.totalCents[r];
+                if (counted(orders.status[r])) {
+                    revenueOrders++;
+                    revenueCents += orders.totalCents[r];
+                    dayRevenue[day - fromDay] += orders.totalCents[r];
+                }
+            }
+
+            // categoryId -> [revenue cents, units]
+            Map<Long, long[]> byCategory = new HashMap<>();
+            for (int i = 0; i < items.size; i++) {
+                int row = orderRows.get(items.orderId[i]);
+                if (row == LongIntHashMap.MISSING || orders.day[row] < fromDay || orders.day[row] > toDay
+                        || !counted(orders.status[row])) {
+                    continue;
+                }
+                ProductDim product = productDims.get(items.productId[i]);
+                long categoryId = product != null ? product.categoryId() : 0L;
+                long[] totals = byCategory.computeIfAbsent(categoryId, id -> new long[2]);
+                totals[0] += items.lineCents[i];
+                totals[1] += items.quantity[i];
+            }
+
+            Map<String, Long> ordersByStatus = new HashMap<>();
+            for (int s = 0; s < STATUSES.length; s++) {
+                if (statusCounts[s] > 0) {
+                    ordersByStatus.put(STATUSES[s].name(), statusCounts[s]);
+                }
+            }
+
+            List<SalesAnalytics.DailySales> dailySales = new ArrayList<>();
+            Map<YearMonth, long[]> byMonth = new TreeMap<>();
+            for (int d = 0; d < days; d++) {
+                if (dayOrders[d] == 0) {
+                    continue;
+                }
+                LocalDate date = LocalDate.ofEpochDay(fromDay + d);
+                if (!date.isBefore(dailyFrom)) {
+                    dailySales.add(SalesAnalytics.DailySales.builder()
+                            .date(date.toString())
+                            .revenue(money(dayRevenue[d]))
+                            .orderCount(dayOrders[d])
+                            .build());
+                }
+                long[] month = byMonth.computeIfAbsent(YearMonth.from(date), m -> new long[2]);
+                month[0] += dayOrders[d];
+                month[1] += dayRevenue[d];
+            }
+            List<SalesAnalytics.MonthlySales> monthlySales = byMonth.entrySet().stream()
+                    .map(e -> SalesAnalytics.MonthlySales.builder()
+                            .month(e.getKey().toString())
+                            .orderCount(e.getValue()[0])
+                            .revenue(money(e.getValue()[1]))
+                            .build())
+                    .collect(Collectors.toList());
+
+            Map<Long, String> categoryNames = new HashMap<>();
+            productDims.values().forEach(p -> categoryNames.putIfAbsent(p.categoryId(), p.categoryName()));
+            List<SalesAnalytics.CategorySales> categorySales = byCategory.entrySet().stream()
+                    .sorted(Comparator.comparingLong((Map.Entry<Long, long[]> e) -> e.getValue()[0]).reversed())
+                    .map(e -> SalesAnalytics.CategorySales.builder()
+                            .categoryId(e.getKey())
+                            .categoryName(e.getKey() == 0L ? "Uncategorized" : categoryNames.getOrDefault(e.getKey(), "Uncategorized"))
+                            .revenue(money(e.getValue()[0]))
+                            .unitsSold(e.getValue()[1])
+                            .build())
+                    .collect(Collectors.toList());
+
+            // Exact here: the snapshot holds every order value of the range
+            Arrays.sort(values, 0, valueCount);
+            return SalesAnalytics.builder()
+                    .totalRevenue(money(revenueCents))
+                    .totalOrders(totalOrders)
+                    .averageOrderValue(revenueOrders > 0
+                            ? money(revenueCents).divide(BigDecimal.valueOf(revenueOrders), 2, RoundingMode.HALF_UP)
+                            : BigDecimal.ZERO)
+                    .ordersByStatus(ordersByStatus)
+                    .dailySales(dailySales)
+                    .monthlySales(monthlySales)
+                    .categorySales(categorySales)
+                    .uniqueBuyers(buyers.size())
+                    .orderValueP50(percentile(values, valueCount, 0.5))
+                    .orderValueP90(percentile(values, valueCount, 0.9))
+                    .orderValueP99(percentile(values, valueCount, 0.99))
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public ProductAnalytics productAnalytics() {
+        List<ProductDim> all = new ArrayList<>(products.values());
+        List<ProductDim> active = all.stream().filter(ProductDim::active).toList();
+
+        Map<String, Long> productsByCategory = active.stream().collect(Collectors.groupingBy(
+                p -> p.categoryName() != null ? p.categoryName() : "Uncategorized", Collectors.counting()));
+
+        List<ProductAnalytics.TopProduct> topRated = active.stream()
+                .sorted(Comparator.comparing(ProductDim::averageRating, Comparator.nullsLast(Comparator.reverseOrder())))
+                .limit(10)
+                .map(p -> ProductAnalytics.TopProduct.builder()
+                        .id(p.id()).name(p.name()).rating(p.averageRating()).build())
+                .collect(Collectors.toList());
+
+        List<ProductAnalytics.LowStockProduct> lowStock = active.stream()
+                .filter(p -> p.stockQuantity() < 10)
+                .sorted(Comparator.comparingInt(ProductDim::stockQuantity))
+                .map(p -> ProductAnalytics.LowStockProduct.builder()
+                        .id(p.id()).name(p.name()).stockQuantity(p.stockQuantity()).build())
+                .collect(Collectors.toList());
+
+        return ProductAnalytics.builder()
+                .totalProducts(all.size())
+                .activeProducts(active.size())
+                .outOfStockProducts(active.stream().filter(p -> p.stockQuantity() < 1).count())
+                .productsByCategory(productsByCategory)
+                .topRatedProducts(topRated)
+                .lowStockProducts(lowStock)
+                .build();
+    }
+
+    public UserAnalytics userAnalytics(int activeDays, int cohortDays, int cohortMonths) {
+        LocalDate today = LocalDate.now();
+        int todayDay = (int) today.toEpochDay();
+        int cohortFromDay = todayDay - cohortDays + 1;
+        int monthStartDay = (int) today.withDayOfMonth(1).toEpochDay();
+        int firstMonthDay = (int) YearMonth.from(today).minusMonths(cohortMonths - 1L).atDay(1).toEpochDay();
+        long activeSince = LocalDateTime.now().minusDays(activeDays).toEpochSecond(ZoneOffset.UTC);
+
+        lock.readLock().lock();
+        try {
+            long[] roleCounts = new long[ROLES.length];
+            long active = 0;
+            long newThisMonth = 0;
+            long[] daily = new long[cohortDays];
+            Map<YearMonth, Long> monthly = new TreeMap<>();
+            for (int r = 0; r < users.size; r++) {
+                roleCounts[users.role[r]]++;
+                if (users.lastActive[r] >= activeSince) {
+                    active++;
+                }
+                int day = users.signupDay[r];
+                if (day >= monthStartDay && day <= todayDay) {
+                    newThisMonth++;
+                }
+                if (day >= cohortFromDay && day <= todayDay) {
+                    daily[day - cohortFromDay]++;
+                }
+                if (day >= firstMonthDay && day <= todayDay) {
+                    monthly.merge(YearMonth.from(LocalDate.ofEpochDay(day)), 1L, Long::sum);
+                }
+            }
+
+            Map<String, Long> usersByRole = new LinkedHashMap<>();
+            for (int i = 0; i < ROLES.length; i++) {
+                usersByRole.put(ROLES[i].name(), roleCounts[i]);
+            }
+            List<UserAnalytics.SignupCohort> dailySignups = new ArrayList<>();
+            for (int d = 0; d < cohortDays; d++) {
+                if (daily[d] > 0) {
+                    dailySignups.add(UserAnalytics.SignupCohort.builder()
+                            .period(LocalDate.ofEpochDay(cohortFromDay + d).toString())
+                            .newUsers(daily[d])
+                            .build());
+                }
+            }
+            List<UserAnalytics.SignupCohort> monthlySignups = monthly.entrySet().stream()
+                    .map(e -> UserAnalytics.SignupCohort.builder()
+                            .period(e.getKey().toString())
+                            .newUsers(e.getValue())
+                            .build())
+                    .collect(Collectors.toList());
+
+            return UserAnalytics.builder()
+                    .totalUsers(users.size)
+                    .activeUsers(active)
+                    .newUsersThisMonth(newThisMonth)
+                    .usersByRole(usersByRole)
+                    .dailySignups(dailySignups)
+                    .monthlySignups(monthlySignups)
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean counted(byte status) {
+        OrderStatus s = STATUSES[status];
+        return s != OrderStatus.CANCELLED && s != OrderStatus.REFUNDED;
+    }
+
+    private static BigDecimal percentile(long[] sorted, int count, double q) {
+        if (count == 0) {
+            return money(0);
+        }
+        int rank = (int) Math.ceil(q * count) - 1;
+        return money(sorted[Math.max(0, rank)]);
+    }
+
+    private static BigDecimal money(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    private static long cents(Object amount) {
+        return ((BigDecimal) amount).setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
+    }
+
+    private static ProductDim toProductDim(Object[] row) {
+        return new ProductDim(((Number) row[0]).longValue(), (String) row[1],
+                row[2] != null ? ((Number) row[2]).longValue() : 0L, (String) row[3],
+                (Boolean) row[4], row[5] != null ? ((Number) row[5]).intValue() : 0, (BigDecimal) row[6]);
+    }
+
+    // ===== Local disk segments =====
+
+    private void replaySegments() {
+        try {
+            Files.createDirectories(directory);
+            List<Path> segments = listSegments();
+            for (Path segment : segments) {
+                try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment)))) {
+                    apply(Delta.read(in));
+                }
+            }
+            segmentCount = segments.size();
+            nextSegment = segments.isEmpty() ? 0 : segmentNumber(segments.get(segments.size() - 1)) + 1;
+            if (!segments.isEmpty()) {
+                log.info("Replayed {} columnar segments up to {}", segments.size(), watermark);
+            }
+        } catch (IOException ex) {
+            // The segments are only a copy of the database; deleting the directory rebuilds them
+            throw new IllegalStateException("Columnar segments in " + directory + " are unreadable", ex);
+        }
+    }
+
+    private void persist(Delta delta) {
+        try {
+            writeSegment(delta);
+            if (segmentCount > maxSegments) {
+                compact();
+            }
+        } catch (IOException ex) {
+            // The in-memory store is current; the next restart just re-reads more from the database
+            log.warn("Could not write columnar segment to {}: {}", directory, ex.getMessage());
+        }
+    }
+
+    private Path writeSegment(Delta delta) throws IOException {
+        Path target = directory.resolve(String.format("segment-%012d.bin", nextSegment++));
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            delta.write(out);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        segmentCount++;
+        return target;
+    }
+
+    // Rewrites the whole store as one segment and drops the older ones
+    private void compact() throws IOException {
+        Delta full = new Delta();
+        lock.readLock().lock();
+        try {
+            full.orders.addAll(orders);
+            full.items.addAll(items);
+            full.users.addAll(users);
+            full.watermark = watermark;
+        } finally {
+            lock.readLock().unlock();
+        }
+        Path compacted = writeSegment(full);
+        for (Path segment : listSegments()) {
+            if (segment.compareTo(compacted) < 0) {
+                Files.deleteIfExists(segment);
+            }
+        }
+        segmentCount = 1;
+        log.info("Compacted columnar segments into {}", compacted.getFileName());
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().matches("segment-\\d{12}\\.bin"))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static long segmentNumber(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring("segment-".length(), name.length() - ".bin".length()));
+    }
+
+    // ===== Column storage =====
+
+    /**
+     * Rows changed since the previous sync, in the same column layout as the store.
+     */
+    private static final class Delta {
+        final OrderColumns orders = new OrderColumns();
+        final ItemColumns items = new ItemColumns();
+        final UserColumns users = new UserColumns();
+        LocalDateTime watermark;
+
+        void addOrder(Object[] row) {
+            orders.add(((Number) row[0]).longValue(), (int) toLocalDateTime(row[1]).toLocalDate().toEpochDay(),
+                    ((Number) row[2]).longValue(), (byte) OrderStatus.valueOf((String) row[3]).ordinal(), cents(row[4]));
+        }
+
+        void addItem(Object[] row) {
+            int quantity = ((Number) row[2]).intValue();
+            items.add(((Number) row[0]).longValue(), ((Number) row[1]).longValue(), quantity,
+                    cents(row[3]) * quantity);
+        }
+
+        void addUser(Object[] row) {
+            long lastActive = row[3] != null ? toLocalDateTime(row[3]).toEpochSecond(ZoneOffset.UTC) : 0L;
+            users.add(((Number) row[0]).longValue(), (byte) Role.valueOf((String) row[1]).ordinal(),
+                    (int) toLocalDateTime(row[2]).toLocalDate().toEpochDay(), lastActive);
+        }
+
+        boolean isEmpty() {
+            return orders.size == 0 && items.size == 0 && users.size == 0;
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(watermark.toEpochSecond(ZoneOffset.UTC));
+            orders.write(out);
+            items.write(out);
+            users.write(out);
+        }
+
+        static Delta read(DataInputStream in) throws IOException {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new IOException("Not a columnar segment of this version");
+            }
+            Delta delta = new Delta();
+            delta.watermark = LocalDateTime.ofEpochSecond(in.readLong(), 0, ZoneOffset.UTC);
+            delta.orders.read(in);
+            delta.items.read(in);
+            delta.users.read(in);
+            return delta;
+        }
+    }
+
+    private static final class OrderColumns {
+        int size;
+        long[] id = new long[256];
+        int[] day = new int[256];
+        long[] user = new long[256];
+        byte[] status = new byte[256];
+        long[] totalCents = new long[256];
+
+        int add(long orderId, int createdDay, long userId, byte orderStatus, long total) {
+            if (size == id.length) {
+                int capacity = size * 2;
+                id = Arrays.copyOf(id, capacity);
+                day = Arrays.copyOf(day, capacity);
+                user = Arrays.copyOf(user, capacity);
+                status = Arrays.copyOf(status, capacity);
+                totalCents = Arrays.copyOf(totalCents, capacity);
+            }
+            id[size] = orderId;
+            set(size, createdDay, userId, orderStatus, total);
+            return size++;
+        }
+
+        boolean matches(int row, int createdDay, long userId, byte orderStatus, long total) {
+            return day[row] == createdDay && user[row] == userId && status[row] == orderStatus && totalCents[row] == total;
+        }
+
+        void set(int row, int createdDay, long userId, byte orderStatus, long total) {
+            day[row] = createdDay;
+            user[row] = userId;
+            status[row] = orderStatus;
+            totalCents[row] = total;
+        }
+
+        void addAll(OrderColumns other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.id[i], other.day[i], other.user[i], other.status[i], other.totalCents[i]);
+            }
+        }
+
+        // Column by column, so each file section is one primitive run
+        void write(DataOutputStream out) throws IOException {
+            out.writeInt(size);
+            for (int i = 0; i < size; i++) {
+                out.writeLong(id[i]);
+            }
+            for (int i = 0; i < size; i++) {
+                out.writeInt(day[i]);
+            }
+            for (int i = 0; i < size; i++) {
+                out.writeLong(user[i]);
+            }
+            out.write(status, 0, size);
+            for (int i = 0; i < size; i++) {
+                out.writeLong(totalCents[i]);
+            }
+        }
+
+        void read(DataInputStream in) throws IOException {
+            int count = in.readInt();
+            id = new long[Math.max(count, 16)];
+            day = new int[id.length];
+            user = new long[id.length];
+            status = new byte[id.length];
+            totalCents = new long[id.length];
+            for (int i = 0; i < count; i++) {
+                id[i] = in.readLong();
+            }
+            for (int i = 0; i < count; i++) {
+                day[i] = in.readInt();
+            }
+            for (int i = 0; i < count; i++) {
+                user[i] = in.readLong();
+            }
+            in.readFully(status, 0, count);
+            for (int i = 0; i < count; i++) {
+                totalCents[i] = in.readLong();
+            }
+            size = count;
+        }
+    }
+
+    private static final class ItemColumns {
+        int size;
+        long[] orderId = new long[256];
+        long[] productId = new long[256];
+        int[] quantity = new int[256];
+        long[] lineCents = new long[256];
+
+        void add(long order, long product, int units, long cents) {
+            if (size == orderId.length) {
+                int capacity = size * 2;
+                orderId = Arrays.copyOf(orderId, capacity);
+                productId = Arrays.copyOf(productId, capacity);
+                quantity = Arrays.copyOf(quantity, capacity);
+                lineCents = Arrays.copyOf(lineCents, capacity);
+            }
+            orderId[size] = order;
+            productId[size] = product;
+            quantity[size] = units;
+            lineCents[size] = cents;
+            size++;
+        }
+
+        void addAll(ItemColumns other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.orderId[i], other.productId[i], other.quantity[i], other.lineCents[i]);
+            }
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeInt(size);
+            for (int i = 0; i < size; i++) {
+                out.writeLong(orderId[i]);
+            }
+            for (int i = 0; i < size; i++) {
+                out.writeLong(productId[i]);
+            }
+            for (int i = 0; i < size; i++) {
+                out.writeInt(quantity[i]);
+            }
+            for (int i = 0; i < size; i++) {
+                out.writeLong(lineCents[i]);
+            }
+        }
+
+        void read(DataInputStream in) throws IOException {
+            int count = in.readInt();
+            orderId = new long[Math.max(count, 16)];
+            productId = new long[orderId.length];
+            quantity = new int[orderId.length];
+            lineCents = new long[orderId.length];
+            for (int i = 0; i < count; i++) {
+                orderId[i] = in.readLong();
+            }
+            for (int i = 0; i < count; i++) {
+                productId[i] = in.readLong();
+            }
+            for (int i = 0; i < count; i++) {
+                quantity[i] = in.readInt();
+            }
+            for (int i = 0; i < count; i++) {
+                lineCents[i] = in.readLong();
+            }
+            size = count;
+        }
+    }
+
+    private static final class UserColumns {
+        int size;
+        long[] id = new long[256];
+        byte[] role = new byte[256];
+        int[] signupDay = new int[256];
+        // Epoch seconds of the last login or order, 0 if never
+        long[] lastActive = new long[256];
+
+        int add(long userId, byte userRole, int day, long active) {
+            if (size == id.length) {
+                int capacity = size * 2;
+                id = Arrays.copyOf(id, capacity);
+                role = Arrays.copyOf(role, capacity);
+                signupDay = Arrays.copyOf(signupDay, capacity);
+                lastActive = Arrays.copyOf(lastActive, capacity);
+            }
+            id[size] = userId;
+            set(size, userRole, day, active);
+            return size++;
+        }
+
+        boolean matches(int row, byte userRole, int day, long active) {
+            return role[row] == userRole && signupDay[row] == day && lastActive[row] == active;
+        }
+
+        void set(int row, byte userRole, int day, long active) {
+            role[row] = userRole;
+            signupDay[row] = day;
+            lastActive[row] = active;
+        }
+
+        void addAll(UserColumns other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.id[i], other.role[i], other.signupDay[i], other.lastActive[i]);
+            }
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeInt(size);
+            for (int i = 0; i < size; i++) {
+                out.writeLong(id[i]);
+            }
+            out.write(role, 0, size);
+            for (int i = 0; i < size; i++) {
+                out.writeInt(signupDay[i]);
+            }
+            for (int i = 0; i < size; i++) {
+                out.writeLong(lastActive[i]);
+            }
+        }
+
+        void read(DataInputStream in) throws IOException {
+            int count = in.readInt();
+            id = new long[Math.max(count, 16)];
+            role = new byte[id.length];
+            signupDay = new int[id.length];
+            lastActive = new long[id.length];
+            for (int i = 0; i < count; i++) {
+                id[i] = in.readLong();
+            }
+            in.readFully(role, 0, count);
+            for (int i = 0; i < count; i++) {
+                signupDay[i] = in.readInt();
+            }
+            for (int i = 0; i < count; i++) {
+                lastActive[i] = in.readLong();
+            }
+            size = count;
+        }
+    }
+}
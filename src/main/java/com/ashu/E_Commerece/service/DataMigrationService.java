@@ -0,0 +1,77 @@
+package com.ashu.E_Commerece.service;
+
+import com.ashu.E_Commerece.model.DataMigration;
+import com.ashu.E_Commerece.repository.DataMigrationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.function.IntSupplier;
+
+/**
+ * Runs one-time data backfills. Each is recorded in data_migrations in the
+ * same transaction as its writes, so it runs to completion exactly once per
+ * database; afterwards the incremental updates keep the data current.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DataMigrationService {
+
+    private final DataMigrationRepository dataMigrationRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Applies the migration unless it already has been.
+     *
+     * @return rows it changed, or 0 if it was already applied
+     */
+    public int runOnce(String name, IntSupplier migration) {
+        if (dataMigrationRepository.existsById(name)) {
+            return 0;
+        }
+        try {
+            int rows = transactionTemplate.execute(status -> {
+                // Marker first: a node starting concurrently waits on it and then skips the migration
+                DataMigration marker = dataMigrationRepository.saveAndFlush(DataMigration.builder()
+                        .name(name)
+                        .appliedAt(LocalDateTime.now())
+                        .build());
+                int changed = migration.getAsInt();
+                marker.setRowsAffected(changed);
+                return changed;
+            });
+            log.info("Applied data migration {}: {} rows", name, rows);
+            return rows;
+        } catch (DataIntegrityViolationException | PessimisticLockingFailureException ex) {
+            log.debug("Data migration {} applied concurrently", name);
+            return 0;
+        }
+    }
+
+    /**
+     * Applies an idempotent migration that commits in chunks of its own, and
+     * records it once it has finished. If it is interrupted, the next start
+     * resumes it.
+     *
+     * @return rows it changed, or 0 if it was already applied
+     */
+    public int runOnceInChunks(String name, IntSupplier migration) {
+        if (dataMigrationRepository.existsById(name)) {
+            return 0;
+        }
+        int rows = migration.getAsInt();
+        try {
+            transactionTemplate.executeWithoutResult(status -> dataMigrationRepository.saveAndFlush(
+                    DataMigration.builder().name(name).rowsAffected(rows).appliedAt(LocalDateTime.now()).build()));
+        } catch (DataIntegrityViolationException ex) {
+            log.debug("Data migration {} recorded concurrently", name);
+        }
+        log.info("Applied data migration {}: {} rows", name, rows);
+        return rows;
+    }
+}
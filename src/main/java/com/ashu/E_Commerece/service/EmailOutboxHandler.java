@@ -0,0 +1,45 @@
+package com.ashu.E_Commerece.service;
+
+import com.ashu.E_Commerece.model.OutboxEvent;
+import com.ashu.E_Commerece.model.OutboxEventType;
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sends customer emails for order lifecycle events.
+ */
+@Component
+@RequiredArgsConstructor
+public class EmailOutboxHandler implements OutboxEventHandler {
+
+    private final EmailService emailService;
+
+    @Override
+    public boolean supports(OutboxEventType type) {
+        return type == OutboxEventType.ORDER_CREATED
+                || type == OutboxEventType.ORDER_STATUS_CHANGED
+                || type == OutboxEventType.ORDER_STATUS_BATCH_CHANGED;
+    }
+
+    @Override
+    public void handle(OutboxEvent event, JsonNode payload) {
+        if (event.getEventType() == OutboxEventType.ORDER_STATUS_BATCH_CHANGED) {
+            String status = payload.path("status").asText();
+            for (JsonNode order : payload.path("orders")) {
+                emailService.sendOrderStatusUpdate(order.path("customerEmail").asText(),
+                        order.path("orderNumber").asText(), status);
+            }
+            return;
+        }
+
+        String to = payload.path("customerEmail").asText();
+        String orderNumber = payload.path("orderNumber").asText();
+
+        if (event.getEventType() == OutboxEventType.ORDER_CREATED) {
+            emailService.sendOrderConfirmation(to, orderNumber, payload.path("totalAmount").decimalValue());
+        } else {
+            emailService.sendOrderStatusUpdate(to, orderNumber, payload.path("status").asText());
+        }
+    }
+}
@@ -4,6 +4,8 @@ import com.ashu.E_Commerece.model.Order;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+
 /**
  * Mock email service that logs emails instead of sending them.
  */
@@ -12,17 +14,25 @@ import org.springframework.stereotype.Service;
 public class EmailService {
 
     public void sendOrderConfirmation(String to, Order order) {
+        sendOrderConfirmation(to, order.getOrderNumber(), order.getTotalAmount());
+    }
+
+    public void sendOrderConfirmation(String to, String orderNumber, BigDecimal totalAmount) {
         log.info("=== MOCK EMAIL: Order Confirmation ===");
         log.info("To: {}", to);
-        log.info("Subject: Order Confirmation - {}", order.getOrderNumber());
-        log.info("Total Amount: ${}", order.getTotalAmount());
+        log.info("Subject: Order Confirmation - {}", orderNumber);
+        log.info("Total Amount: ${}", totalAmount);
         log.info("========================================");
     }
 
     public void sendOrderStatusUpdate(String to, Order order) {
+        sendOrderStatusUpdate(to, order.getOrderNumber(), order.getStatus().name());
+    }
+
+    public void sendOrderStatusUpdate(String to, String orderNumber, String status) {
         log.info("=== MOCK EMAIL: Order Status Update ===");
         log.info("To: {}", to);
-        log.info("Order: {} - Status: {}", order.getOrderNumber(), order.getStatus());
+        log.info("Order: {} - Status: {}", orderNumber, status);
         log.info("========================================");
     }
 
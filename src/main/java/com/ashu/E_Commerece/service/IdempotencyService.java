@@ -0,0 +1,246 @@
+package com.ashu.E_Commerece.service;
+
+import com.ashu.E_Commerece.exception.BadRequestException;
+import com.ashu.E_Commerece.exception.ConflictException;
+import com.ashu.E_Commerece.model.IdempotencyRecord;
+import com.ashu.E_Commerece.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Makes non-idempotent POST endpoints safe to retry via the Idempotency-Key
+ * header. Completed responses are kept in a bounded in-memory cache backed by
+ * the idempotency_keys table; a retry with the same key and body is answered
+ * from the store without re-running the operation. The key is claimed in the
+ * operation's own transaction, so it is recorded exactly when the operation
+ * commits. Concurrent duplicates on this node wait for the in-flight call;
+ * duplicates on other nodes wait for the claim's transaction and replay its
+ * response, or get 409 if it is still running.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    private Cache<String, StoredResponse> completed;
+
+    @Value("${idempotency.cache-size:10000}")
+    private long cacheSize;
+
+    @Value("${idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${idempotency.wait-timeout-ms:30000}")
+    private long waitTimeoutMs;
+
+    @PostConstruct
+    void initCache() {
+        completed = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(Duration.ofHours(ttlHours))
+                .build();
+    }
+
+    /**
+     * Runs the action at most once per (operation, user, key). Without a key
+     * the action simply runs, keeping the header optional for clients.
+     */
+    public <T> ResponseEntity<T> execute(String key, String operation, Object request,
+                                         TypeReference<T> responseType,
+                                         Supplier<ResponseEntity<T>> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > 255) {
+            throw new BadRequestException(HEADER + " must be at most 255 characters");
+        }
+
+        String scope = operation + ":" + SecurityContextHolder.getContext().getAuthentication().getName();
+        String cacheKey = scope + ":" + key;
+        String requestHash = hash(request);
+
+        StoredResponse cached = completed.getIfPresent(cacheKey);
+        if (cached != null) {
+            return replay(cached, requestHash, responseType);
+        }
+
+        CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> existing = inFlight.putIfAbsent(cacheKey, mine);
+        if (existing != null) {
+            return replay(await(existing), requestHash, responseType);
+        }
+
+        try {
+            StoredResponse stored = runOnce(scope, key, requestHash, action);
+            completed.put(cacheKey, stored.withoutLive());
+            mine.complete(stored.withoutLive());
+            return stored.live() != null ? castLive(stored) : replay(stored, requestHash, responseType);
+        } catch (RuntimeException ex) {
+            mine.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(cacheKey, mine);
+        }
+    }
+
+    private <T> StoredResponse runOnce(String scope, String key, String requestHash,
+                                       Supplier<ResponseEntity<T>> action) {
+        Optional<IdempotencyRecord> durable = idempotencyRecordRepository.findByScopeAndIdempotencyKey(scope, key);
+        if (durable.isPresent()) {
+            IdempotencyRecord record = durable.get();
+            if (record.getExpiresAt().isAfter(LocalDateTime.now())) {
+                return stored(record);
+            }
+            // Expired keys are absent, whether or not the hourly purge has reached them yet
+            transactionTemplate.executeWithoutResult(status -> idempotencyRecordRepository.deleteById(record.getId()));
+        }
+
+        // The claim, the action and the stored response commit or roll back together: a crash
+        // or a failed action leaves no claim behind, and a committed claim is always complete
+        try {
+            return transactionTemplate.execute(status -> {
+                IdempotencyRecord claim;
+                try {
+                    // The unique (scope, key) constraint arbitrates between nodes; a concurrent
+                    // insert waits on ours until it commits or rolls back
+                    claim = idempotencyRecordRepository.saveAndFlush(IdempotencyRecord.builder()
+                            .scope(scope)
+                            .idempotencyKey(key)
+                            .requestHash(requestHash)
+                            .expiresAt(LocalDateTime.now().plusHours(ttlHours))
+                            .build());
+                } catch (DataIntegrityViolationException | PessimisticLockingFailureException ex) {
+                    throw new ClaimTakenException();
+                }
+
+                ResponseEntity<T> response = action.get();
+                claim.setCompleted(true);
+                claim.setResponseStatus(response.getStatusCode().value());
+                claim.setResponseBody(toJson(response.getBody()));
+                idempotencyRecordRepository.save(claim);
+                return new StoredResponse(requestHash, claim.getResponseStatus(), claim.getResponseBody(), response);
+            });
+        } catch (ClaimTakenException ex) {
+            // Another node holds or just completed the key
+            return idempotencyRecordRepository.findByScopeAndIdempotencyKey(scope, key)
+                    .map(this::stored)
+                    .orElseThrow(() -> new ConflictException("A request with this " + HEADER + " is already in progress"));
+        }
+    }
+
+    // Claims are written complete; an incomplete one predates that and stays in progress until it expires
+    private StoredResponse stored(IdempotencyRecord record) {
+        if (!record.isCompleted()) {
+            throw new ConflictException("A request with this " + HEADER + " is already in progress");
+        }
+        return new StoredResponse(record.getRequestHash(), record.getResponseStatus(), record.getResponseBody(), null);
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> future) {
+        try {
+            return future.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            throw new ConflictException("A request with this " + HEADER + " is still in progress");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("Interrupted while waiting for in-flight request");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> ResponseEntity<T> castLive(StoredResponse stored) {
+        return (ResponseEntity<T>) stored.live();
+    }
+
+    private <T> ResponseEntity<T> replay(StoredResponse stored, String requestHash, TypeReference<T> responseType) {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new BadRequestException(HEADER + " was already used with a different request body");
+        }
+        try {
+            T body = objectMapper.readValue(stored.body(), responseType);
+            return ResponseEntity.status(stored.status()).header(REPLAYED_HEADER, "true").body(body);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not deserialize stored idempotent response", ex);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.cleanup-interval-ms:3600000}")
+    public void purgeExpired() {
+        Integer removed = transactionTemplate.execute(status ->
+                idempotencyRecordRepository.deleteExpired(LocalDateTime.now()));
+        if (removed != null && removed > 0) {
+            log.info("Purged {} expired idempotency keys", removed);
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(toJson(request).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize idempotent payload", ex);
+        }
+    }
+
+    private static final class ClaimTakenException extends RuntimeException {
+
+        ClaimTakenException() {
+            super(null, null, false, false);
+        }
+    }
+
+    // live is the original response, handed only to the caller that executed the action
+    private record StoredResponse(String requestHash, int status, String body, ResponseEntity<?> live) {
+
+        StoredResponse withoutLive() {
+            return new StoredResponse(requestHash, status, body, null);
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package com.ashu.E_Commerece.service;
+
+import com.ashu.E_Commerece.dto.analytics.LiveSalesUpdate;
+import com.ashu.E_Commerece.model.Order;
+import com.ashu.E_Commerece.model.OrderStatus;
+import com.ashu.E_Commerece.model.SalesDaily;
+import com.ashu.E_Commerece.repository.ArchivedOrderRepository;
+import com.ashu.E_Commerece.repository.OrderRepository;
+import com.ashu.E_Commerece.repository.SalesDailyRepository;
+import com.ashu.E_Commerece.util.SseBroadcaster;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * In-memory live sales metrics pushed to admin dashboards over Server-Sent
+ * Events. Order placements and status changes update the aggregate after
+ * commit; once per push interval the changes are folded into one delta event,
+ * serialized once and queued to every subscriber, so N dashboards cost one
+ * aggregation. Each subscriber is drained by its own virtual thread; one that
+ * falls a queue behind is disconnected and gets a fresh snapshot when it
+ * reconnects. Status counts and today's totals are periodically re-read from
+ * the database to heal any drift.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LiveSalesService {
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final SalesDailyRepository salesDailyRepository;
+    private final ObjectMapper objectMapper;
+
+    private SseBroadcaster broadcaster;
+
+    // Aggregate state, guarded by this
+    private final long[] statusCounts = new long[STATUSES.length];
+    private final Map<Long, long[]> minutes = new HashMap<>();
+    private LocalDate today = LocalDate.now();
+    private long ordersToday;
+    private long revenueTodayCents;
+    private long sequence;
+    private final Set<OrderStatus> changedStatuses = EnumSet.noneOf(OrderStatus.class);
+    private final Set<Long> changedMinutes = new TreeSet<>();
+    private boolean changed;
+    private long lastSentAt = System.currentTimeMillis();
+
+    @Value("${live-sales.window-minutes:60}")
+    private int windowMinutes;
+
+    @Value("${live-sales.heartbeat-interval-ms:15000}")
+    private long heartbeatIntervalMs;
+
+    @Value("${live-sales.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+
+    @Value("${live-sales.subscriber-queue-size:32}")
+    private int subscriberQueueSize;
+
+    @PostConstruct
+    void init() {
+        broadcaster = new SseBroadcaster("live-sales", subscriberQueueSize, emitterTimeoutMs);
+    }
+
+    /**
+     * Opens a stream that starts with a snapshot followed by deltas.
+     */
+    public SseEmitter subscribe() {
+        synchronized (this) {
+            // Queued under the same lock as deltas, so the snapshot always comes first
+            return broadcaster.subscribe(event("snapshot", snapshot()));
+        }
+    }
+
+    /**
+     * Counts a newly placed order once its transaction commits.
+     */
+    public void orderPlaced(Order order) {
+        LocalDateTime createdAt = order.getCreatedAt();
+        long cents = cents(order.getTotalAmount());
+        afterCommit(() -> {
+            synchronized (this) {
+                rollDay();
+                long minute = epochMinute(createdAt);
+                long[] bucket = minutes.computeIfAbsent(minute, m -> new long[2]);
+                bucket[0]++;
+                bucket[1] += cents;
+                changedMinutes.add(minute);
+                if (createdAt.toLocalDate().equals(today)) {
+                    ordersToday++;
+                    revenueTodayCents += cents;
+                }
+                moveStatus(null, OrderStatus.PENDING, 1);
+            }
+        });
+    }
+
+    /**
+     * Moves one order between status counts once its transaction commits;
+     * cancelling or refunding an order placed today takes it out of today's revenue.
+     */
+    public void statusChanged(Order order, OrderStatus from, OrderStatus to) {
+        LocalDate createdDay = order.getCreatedAt().toLocalDate();
+        long cents = cents(order.getTotalAmount());
+        afterCommit(() -> {
+            synchronized (this) {
+                rollDay();
+                moveStatus(from, to, 1);
+                if (reversesRevenue(from, to) && createdDay.equals(today)) {
+                    revenueTodayCents -= cents;
+                }
+            }
+        });
+    }
+
+    /**
+     * Bulk variant: orders moved to one status, counted by previous status.
+     */
+    public void statusesChanged(Map<OrderStatus, Long> countsByPreviousStatus, OrderStatus to) {
+        afterCommit(() -> {
+            synchronized (this) {
+                countsByPreviousStatus.forEach((from, count) -> moveStatus(from, to, count));
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${live-sales.push-interval-ms:1000}")
+    public void push() {
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            rollDay();
+            trimWindow();
+            if (changed) {
+                broadcaster.broadcast(event("delta", delta()));
+                lastSentAt = now;
+            } else if (now - lastSentAt >= heartbeatIntervalMs) {
+                broadcaster.heartbeat();
+                lastSentAt = now;
+            }
+        }
+    }
+
+    /**
+     * Re-reads status counts and today's totals from the database, correcting
+     * any drift; the next delta carries only the values that moved.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${live-sales.resync-interval-ms:300000}",
+            fixedDelayString = "${live-sales.resync-interval-ms:300000}")
+    public void resync() {
+        long[] counts = new long[STATUSES.length];
+        orderRepository.countOrdersByStatus().forEach(row ->
+                counts[OrderStatus.valueOf(row[0].toString()).ordinal()] += ((Number) row[1]).longValue());
+        archivedOrderRepository.countOrdersByStatus().forEach(row ->
+                counts[OrderStatus.valueOf(row[0].toString()).ordinal()] += ((Number) row[1]).longValue());
+        LocalDate day = LocalDate.now();
+        SalesDaily daily = salesDailyRepository.findById(day).orElse(null);
+
+        synchronized (this) {
+            for (OrderStatus status : STATUSES) {
+                if (statusCounts[status.ordinal()] != counts[status.ordinal()]) {
+                    statusCounts[status.ordinal()] = counts[status.ordinal()];
+                    changedStatuses.add(status);
+                    changed = true;
+                }
+            }
+            long orders = daily != null ? daily.getOrderCount() : 0;
+            long revenue = daily != null ? cents(daily.getRevenue()) : 0;
+            if (!day.equals(today) || orders != ordersToday || revenue != revenueTodayCents) {
+                today = day;
+                ordersToday = orders;
+                revenueTodayCents = revenue;
+                changed = true;
+            }
+        }
+    }
+
+    public int subscriberCount() {
+        return broadcaster.size();
+    }
+
+    // ===== Aggregate (callers hold the monitor) =====
+
+    private void moveStatus(OrderStatus from, OrderStatus to, long count) {
+        if (from != null) {
+            statusCounts[from.ordinal()] -= count;
+            changedStatuses.add(from);
+        }
+        statusCounts[to.ordinal()] += count;
+        changedStatuses.add(to);
+        changed = true;
+    }
+
+    private void rollDay() {
+        LocalDate now = LocalDate.now();
+        if (!now.equals(today)) {
+            today = now;
+            ordersToday = 0;
+            revenueTodayCents = 0;
+            changed = true;
+        }
+    }
+
+    private void trimWindow() {
+        long oldest = epochMinute(LocalDateTime.now()) - windowMinutes + 1;
+        minutes.keySet().removeIf(minute -> minute < oldest);
+    }
+
+    private LiveSalesUpdate snapshot() {
+        Map<String, Long> counts = new HashMap<>();
+        for (OrderStatus status : STATUSES) {
+            counts.put(status.name(), statusCounts[status.ordinal()]);
+        }
+        return base(true)
+                .statusCounts(counts)
+                .minutes(minuteSales(new TreeSet<>(minutes.keySet())))
+                .build();
+    }
+
+    private LiveSalesUpdate delta() {
+        Map<String, Long> counts = new HashMap<>();
+        changedStatuses.forEach(status -> counts.put(status.name(), statusCounts[status.ordinal()]));
+        LiveSalesUpdate update = base(false)
+                .statusCounts(counts)
+                .minutes(minuteSales(changedMinutes))
+                .build();
+        changedStatuses.clear();
+        changedMinutes.clear();
+        changed = false;
+        return update;
+    }
+
+    private LiveSalesUpdate.LiveSalesUpdateBuilder base(boolean snapshot) {
+        long[] lastMinute = minutes.get(epochMinute(LocalDateTime.now()));
+        return LiveSalesUpdate.builder()
+                .sequence(++sequence)
+                .snapshot(snapshot)
+                .date(today.toString())
+                .ordersToday(ordersToday)
+                .revenueToday(money(revenueTodayCents))
+                .ordersLastMinute(lastMinute != null ? lastMinute[0] : 0);
+    }
+
+    private List<LiveSalesUpdate.MinuteSales> minuteSales(Set<Long> keys) {
+        List<LiveSalesUpdate.MinuteSales> result = new ArrayList<>();
+        for (Long minute : keys) {
+            long[] bucket = minutes.getOrDefault(minute, new long[2]);
+            result.add(LiveSalesUpdate.MinuteSales.builder()
+                    .minute(LocalDateTime.ofInstant(Instant.ofEpochSecond(minute * 60), ZoneId.systemDefault()).toString())
+                    .orders(bucket[0])
+                    .revenue(money(bucket[1]))
+                    .build());
+        }
+        return result;
+    }
+
+    // ===== Delivery =====
+
+    // Serialized and framed once per event, whatever the number of subscribers
+    private Set<ResponseBodyEmitter.DataWithMediaType> event(String name, LiveSalesUpdate update) {
+        try {
+            return SseBroadcaster.event(name, update.getSequence(), objectMapper.writeValueAsString(update));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize live sales update", ex);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static boolean reversesRevenue(OrderStatus from, OrderStatus to) {
+        boolean wasCounted = from != OrderStatus.CANCELLED && from != OrderStatus.REFUNDED;
+        return wasCounted && (to == OrderStatus.CANCELLED || to == OrderStatus.REFUNDED);
+    }
+
+    private static long epochMinute(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toEpochSecond() / 60;
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static BigDecimal money(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+}
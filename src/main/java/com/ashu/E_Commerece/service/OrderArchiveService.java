@@ -0,0 +1,83 @@
+package com.ashu.E_Commerece.service;
+
+import com.ashu.E_Commerece.model.OrderStatus;
+import com.ashu.E_Commerece.repository.ArchivedOrderRepository;
+import com.ashu.E_Commerece.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves finished orders out of the hot {@code orders}/{@code order_items}
+ * tables into the archive tables so day-to-day queries only touch recent
+ * data. Each chunk is copied and deleted in its own short transaction, so the
+ * job never holds long locks and can resume after interruption.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderArchiveService {
+
+    private static final List<OrderStatus> ARCHIVABLE =
+            List.of(OrderStatus.DELIVERED, OrderStatus.CANCELLED, OrderStatus.REFUNDED);
+
+    private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${order-archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${order-archive.retention-days:365}")
+    private int retentionDays;
+
+    @Value("${order-archive.chunk-size:500}")
+    private int chunkSize;
+
+    @Scheduled(cron = "${order-archive.cron:0 30 3 * * *}")
+    public void scheduledArchive() {
+        if (enabled) {
+            archiveOrdersOlderThan(LocalDateTime.now().minusDays(retentionDays));
+        }
+    }
+
+    /**
+     * Archives finished orders last updated before the cutoff.
+     *
+     * @return number of orders moved
+     */
+    public int archiveOrdersOlderThan(LocalDateTime cutoff) {
+        int total = 0;
+        int moved;
+        do {
+            moved = transactionTemplate.execute(status -> archiveChunk(cutoff));
+            total += moved;
+        } while (moved == chunkSize);
+
+        if (total > 0) {
+            log.info("Archived {} orders last updated before {}", total, cutoff);
+        }
+        return total;
+    }
+
+    private int archiveChunk(LocalDateTime cutoff) {
+        List<Long> ids = orderRepository.findArchivableIds(ARCHIVABLE, cutoff, PageRequest.of(0, chunkSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        // Copy first, then delete children before parents to satisfy the FK
+        archivedOrderRepository.copyOrders(ids);
+        archivedOrderRepository.copyOrderItems(ids);
+        archivedOrderRepository.deleteHotOrderItems(ids);
+        archivedOrderRepository.deleteHotOrders(ids);
+        return ids.size();
+    }
+}
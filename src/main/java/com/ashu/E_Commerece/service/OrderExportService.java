@@ -0,0 +1,286 @@
+package com.ashu.E_Commerece.service;
+
+import com.ashu.E_Commerece.dto.order.OrderExportRow;
+import com.ashu.E_Commerece.exception.BadRequestException;
+import com.ashu.E_Commerece.exception.RateLimitExceededException;
+import com.ashu.E_Commerece.repository.ArchivedOrderRepository;
+import com.ashu.E_Commerece.repository.OrderRepository;
+import com.ashu.E_Commerece.util.Csv;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Streams orders with their line items for finance reconciliation. Rows come
+ * from two forward-only cursors, hot and archived orders, merged by creation
+ * time and written as they are read, so memory stays flat regardless of the
+ * range. Both cursors read one repeatable-read snapshot, so an order archived
+ * mid-export appears exactly once. Exports run on the MVC async executor, off
+ * the request threads, and a small permit pool keeps them from monopolising
+ * DB connections.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderExportService {
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format from(String value) {
+            try {
+                return Format.valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException ex) {
+                throw new BadRequestException("Unsupported export format: " + value);
+            }
+        }
+    }
+
+    private static final String CSV_HEADER = "order_id,order_number,customer_email,status,payment_method,payment_id," +
+            "created_at,subtotal,shipping_cost,tax,discount,total_amount," +
+            "item_id,product_id,product_name,product_sku,quantity,unit_price";
+
+    private static final Comparator<OrderExportRow> EXPORT_ORDER = Comparator.comparing(OrderExportRow::getCreatedAt)
+            .thenComparing(OrderExportRow::getOrderId)
+            .thenComparing(OrderExportRow::getItemId);
+
+    private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    private TransactionTemplate readOnlyTransaction;
+    private Semaphore permits;
+
+    @Value("${order-export.max-concurrent:2}")
+    private int maxConcurrent;
+
+    @Value("${order-export.flush-rows:500}")
+    private int flushRows;
+
+    @PostConstruct
+    void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        // Hot and archive cursors must see the same snapshot while the archiver moves rows
+        readOnlyTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        permits = new Semaphore(maxConcurrent);
+    }
+
+    /**
+     * Prepares an export of orders created in [from, to). The permit is taken
+     * up front so an over-limit caller gets 429 before the response starts.
+     * It is released when the body finishes or, if the body never runs, when
+     * the request's async processing completes, times out or fails.
+     */
+    public StreamingResponseBody export(LocalDateTime from, LocalDateTime to, Format format) {
+        if (!from.isBefore(to)) {
+            throw new BadRequestException("'from' must be before 'to'");
+        }
+        if (!permits.tryAcquire()) {
+            throw new RateLimitExceededException("Too many exports in progress. Please try again later.");
+        }
+        AtomicBoolean held = new AtomicBoolean(true);
+        Runnable release = () -> {
+            if (held.compareAndSet(true, false)) {
+                permits.release();
+            }
+        };
+        releaseOnAsyncCompletion(release);
+
+        return outputStream -> {
+            try {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+                long rows = readOnlyTransaction.execute(status -> {
+                    try (Stream<OrderExportRow> hot = orderRepository.streamExportRows(from, to);
+                         Stream<OrderExportRow> archived = archivedOrderRepository.streamExportRows(from, to)) {
+                        Iterator<OrderExportRow> merged = merge(hot.iterator(), archived.iterator());
+                        return format == Format.CSV ? writeCsv(merged, writer) : writeNdjson(merged, writer);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+                writer.flush();
+                log.info("Exported {} order lines created between {} and {} as {}", rows, from, to, format);
+            } finally {
+                release.run();
+            }
+        };
+    }
+
+    // The request's async lifecycle ends even when the body never runs (rejected start, client gone, timeout)
+    private void releaseOnAsyncCompletion(Runnable release) {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return;
+        }
+        WebAsyncUtils.getAsyncManager(attributes.getRequest()).registerCallableInterceptor(
+                OrderExportService.class.getName(), new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void afterCompletion(NativeWebRequest request, Callable<T> task) {
+                        release.run();
+                    }
+                });
+    }
+
+    // Both cursors are sorted by EXPORT_ORDER, and an order lives in only one of them
+    private static Iterator<OrderExportRow> merge(Iterator<OrderExportRow> first, Iterator<OrderExportRow> second) {
+        return new Iterator<>() {
+            private OrderExportRow nextFirst = first.hasNext() ? first.next() : null;
+            private OrderExportRow nextSecond = second.hasNext() ? second.next() : null;
+
+            @Override
+            public boolean hasNext() {
+                return nextFirst != null || nextSecond != null;
+            }
+
+            @Override
+            public OrderExportRow next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                OrderExportRow row;
+                if (nextSecond == null || (nextFirst != null && EXPORT_ORDER.compare(nextFirst, nextSecond) <= 0)) {
+                    row = nextFirst;
+                    nextFirst = first.hasNext() ? first.next() : null;
+                } else {
+                    row = nextSecond;
+                    nextSecond = second.hasNext() ? second.next() : null;
+                }
+                return row;
+            }
+        };
+    }
+
+    private long writeCsv(Iterator<OrderExportRow> rows, Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+
+        long count = 0;
+        while (rows.hasNext()) {
+            OrderExportRow row = rows.next();
+            writer.write(String.join(",",
+                    Csv.field(row.getOrderId()), Csv.field(row.getOrderNumber()), Csv.field(row.getCustomerEmail()),
+                    Csv.field(row.getStatus()), Csv.field(row.getPaymentMethod()), Csv.field(row.getPaymentId()),
+                    Csv.field(row.getCreatedAt()), Csv.field(row.getSubtotal()), Csv.field(row.getShippingCost()),
+                    Csv.field(row.getTax()), Csv.field(row.getDiscount()), Csv.field(row.getTotalAmount()),
+                    Csv.field(row.getItemId()), Csv.field(row.getProductId()), Csv.field(row.getProductName()),
+                    Csv.field(row.getProductSku()), Csv.field(row.getQuantity()), Csv.field(row.getUnitPrice())));
+            writer.write('\n');
+            if (++count % flushRows == 0) {
+                writer.flush();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * One JSON object per order with its items nested. Rows arrive ordered by
+     * order, so only the order currently being written is held open.
+     */
+    private long writeNdjson(Iterator<OrderExportRow> rows, Writer writer) throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(writer);
+        json.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+        // Lines are separated explicitly; suppress the default space between root values
+        json.setRootValueSeparator(null);
+
+        long count = 0;
+        Long currentOrderId = null;
+        while (rows.hasNext()) {
+            OrderExportRow row = rows.next();
+            if (!row.getOrderId().equals(currentOrderId)) {
+                if (currentOrderId != null) {
+                    endOrder(json, writer);
+                }
+                currentOrderId = row.getOrderId();
+                startOrder(json, row);
+            }
+            json.writeStartObject();
+            json.writeNumberField("itemId", row.getItemId());
+            json.writeNumberField("productId", row.getProductId());
+            json.writeStringField("productName", row.getProductName());
+            json.writeStringField("productSku", row.getProductSku());
+            json.writeNumberField("quantity", row.getQuantity());
+            json.writeNumberField("unitPrice", row.getUnitPrice());
+            json.writeEndObject();
+
+            if (++count % flushRows == 0) {
+                json.flush();
+                writer.flush();
+            }
+        }
+        if (currentOrderId != null) {
+            endOrder(json, writer);
+        }
+        json.close();
+        return count;
+    }
+
+    private void startOrder(JsonGenerator json, OrderExportRow row) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("orderId", row.getOrderId());
+        json.writeStringField("orderNumber", row.getOrderNumber());
+        json.writeStringField("customerEmail", row.getCustomerEmail());
+        json.writeStringField("status", row.getStatus().name());
+        json.writeStringField("paymentMethod", row.getPaymentMethod());
+        json.writeStringField("paymentId", row.getPaymentId());
+        json.writeStringField("createdAt", row.getCreatedAt().toString());
+        json.writeNumberField("subtotal", row.getSubtotal());
+        json.writeNumberField("shippingCost", row.getShippingCost());
+        json.writeNumberField("tax", row.getTax());
+        json.writeNumberField("discount", row.getDiscount());
+        json.writeNumberField("totalAmount", row.getTotalAmount());
+        json.writeArrayFieldStart("items");
+    }
+
+    private void endOrder(JsonGenerator json, Writer writer) throws IOException {
+        json.writeEndArray();
+        json.writeEndObject();
+        json.flush();
+        writer.write('\n');
+    }
+}
@@ -1,28 +1,54 @@
 package com.ashu.E_Commerece.service;
 
+import com.ashu.E_Commerece.dto.common.CursorPagedResponse;
 import com.ashu.E_Commerece.dto.common.PagedResponse;
+import com.ashu.E_Commerece.dto.order.BulkOrderStatusUpdateRequest;
+import com.ashu.E_Commerece.dto.order.BulkOrderStatusUpdateResponse;
+import com.ashu.E_Commerece.dto.order.OrderEventResponse;
 import com.ashu.E_Commerece.dto.order.OrderItemResponse;
 import com.ashu.E_Commerece.dto.order.OrderRequest;
 import com.ashu.E_Commerece.dto.order.OrderResponse;
+import com.ashu.E_Commerece.dto.order.OrderSearchCriteria;
 import com.ashu.E_Commerece.dto.order.OrderStatusUpdateRequest;
 import com.ashu.E_Commerece.exception.BadRequestException;
 import com.ashu.E_Commerece.exception.ResourceNotFoundException;
 import com.ashu.E_Commerece.model.*;
+import com.ashu.E_Commerece.repository.ArchivedOrderRepository;
+import com.ashu.E_Commerece.repository.OrderEventRepository;
 import com.ashu.E_Commerece.repository.OrderRepository;
 import com.ashu.E_Commerece.repository.ProductRepository;
+import com.ashu.E_Commerece.repository.UserRepository;
+import jakarta.persistence.criteria.Predicate;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Handles order lifecycle: creation, status transitions, and cancellations.
@@ -34,11 +60,23 @@ import java.util.stream.Collectors;
 @Slf4j
 public class OrderService {
 
+    private static final int BULK_CHUNK_SIZE = 500;
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+
     private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final OrderEventRepository orderEventRepository;
     private final ProductRepository productRepository;
+    private final UserRepository userRepository;
     private final CartService cartService;
     private final UserService userService;
-    private final EmailService emailService;
+    private final OutboxService outboxService;
+    private final PurchaseIndexService purchaseIndexService;
+    private final SalesRollupService salesRollupService;
+    private final UserRollupService userRollupService;
+    private final LiveSalesService liveSalesService;
+    private final BestSellerService bestSellerService;
+    private final StockLevelService stockLevelService;
 
     /**
      * Creates an order atomically from the user's cart. This operation:
@@ -81,8 +119,10 @@ public class OrderService {
 
             OrderItem orderItem = OrderItem.builder()
                     .product(product)
+                    .productId(product.getId())
                     .productName(product.getName())
                     .productSku(product.getSku())
+                    .categoryId(product.getCategory() != null ? product.getCategory().getId() : 0L)
                     .quantity(cartItem.getQuantity())
                     .unitPrice(product.getEffectivePrice())
                     .build();
@@ -92,6 +132,7 @@ public class OrderService {
             // Decrement stock immediately to prevent concurrent overselling
             product.setStockQuantity(product.getStockQuantity() - cartItem.getQuantity());
             productRepository.save(product);
+            stockLevelService.stockChanged(product);
         }
 
         // Order calculates its own totals to ensure consistency with business rules
@@ -107,43 +148,160 @@ public class OrderService {
 
         log.info("Order created: {} for user: {}", order.getOrderNumber(), user.getEmail());
 
-        // Fire-and-forget: email failure should not roll back the order
-        emailService.sendOrderConfirmation(user.getEmail(), order);
+        orderEventRepository.save(OrderEvent.builder()
+                .orderId(order.getId())
+                .type(OrderEventType.CREATED)
+                .toStatus(OrderStatus.PENDING)
+                .note(request.getNotes())
+                .actor(user.getEmail())
+                .build());
+
+        // Side effects go through the outbox: committed with the order, delivered after commit
+        outboxService.orderCreated(order, user.getEmail());
+        salesRollupService.orderPlaced(order);
+        userRollupService.recordActivity(user.getId());
+        liveSalesService.orderPlaced(order);
+        bestSellerService.orderPlaced(order);
 
         return mapToResponse(order);
     }
 
+    /**
+     * Lists the user's orders newest first across hot and archived orders,
+     * keyset-paginated on (createdAt, id) like the admin search. Archiving
+     * follows finish time, not creation time, so the two sources interleave:
+     * each returns at most one page of keys after the cursor, and the merge
+     * keeps the newest. Archived orders keep their ids, so one cursor
+     * positions both sources.
+     */
     @Transactional(readOnly = true)
-    public PagedResponse<OrderResponse> getUserOrders(int page, int size) {
+    public CursorPagedResponse<OrderResponse> getUserOrders(String cursor, int size) {
+        record Key(long id, LocalDateTime createdAt, boolean archived) {
+        }
+
+        int pageSize = Math.max(1, Math.min(size, MAX_SEARCH_PAGE_SIZE));
         User user = userService.getCurrentUser();
-        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        Page<Order> orders = orderRepository.findByUserId(user.getId(), pageable);
-        return mapToPagedResponse(orders);
+        // One extra row tells whether another page exists without a COUNT
+        Pageable head = PageRequest.ofSize(pageSize + 1);
+        List<Object[]> hot;
+        List<Object[]> archived;
+        if (cursor != null && !cursor.isBlank()) {
+            Cursor position = decodeCursor(cursor);
+            hot = orderRepository.findKeysByUserIdBefore(user.getId(), position.createdAt(), position.id(), head);
+            archived = archivedOrderRepository.findKeysByUserIdBefore(user.getId(), position.createdAt(), position.id(), head);
+        } else {
+            hot = orderRepository.findKeysByUserId(user.getId(), head);
+            archived = archivedOrderRepository.findKeysByUserId(user.getId(), head);
+        }
+
+        List<Key> keys = Stream.concat(
+                        hot.stream().map(row -> new Key((Long) row[0], (LocalDateTime) row[1], false)),
+                        archived.stream().map(row -> new Key((Long) row[0], (LocalDateTime) row[1], true)))
+                .sorted(Comparator.comparing(Key::createdAt).thenComparingLong(Key::id).reversed())
+                .limit(pageSize + 1)
+                .toList();
+        boolean hasNext = keys.size() > pageSize;
+        if (hasNext) {
+            keys = keys.subList(0, pageSize);
+        }
+
+        Map<Long, OrderResponse> hotOrders = loadWithItems(keys.stream().filter(key -> !key.archived()).map(Key::id).toList())
+                .stream().collect(Collectors.toMap(Order::getId, this::mapToResponse));
+        Map<Long, OrderResponse> archivedOrders = loadArchivedWithItems(keys.stream().filter(Key::archived).map(Key::id).toList())
+                .stream().collect(Collectors.toMap(ArchivedOrder::getId, this::mapArchivedToResponse));
+        List<OrderResponse> content = keys.stream()
+                .map(key -> key.archived() ? archivedOrders.get(key.id()) : hotOrders.get(key.id()))
+                .filter(Objects::nonNull)
+                .toList();
+        String nextCursor = null;
+        if (hasNext) {
+            Key last = keys.get(keys.size() - 1);
+            nextCursor = encodeCursor(last.createdAt(), last.id());
+        }
+
+        return CursorPagedResponse.<OrderResponse>builder()
+                .content(content)
+                .size(pageSize)
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
+                .build();
     }
 
     @Transactional(readOnly = true)
     public PagedResponse<OrderResponse> getAllOrders(int page, int size, OrderStatus status) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        Page<Order> orders;
+        Page<Long> orderIds;
 
         if (status != null) {
-            orders = orderRepository.findByStatus(status, pageable);
+            orderIds = orderRepository.findIdsByStatus(status, pageable);
         } else {
-            orders = orderRepository.findAll(pageable);
+            orderIds = orderRepository.findAllIds(pageable);
+        }
+
+        return mapToPagedResponse(orderIds);
+    }
+
+    /**
+     * Admin search over hot orders using keyset pagination on (createdAt, id)
+     * descending. Unlike offset paging, the cost of a page does not grow with
+     * its depth; the cursor is the position of the last row returned.
+     */
+    @Transactional(readOnly = true)
+    public CursorPagedResponse<OrderResponse> searchOrders(OrderSearchCriteria criteria, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_SEARCH_PAGE_SIZE));
+
+        // Resolve the customer up front so the filter is an indexed user_id match, not a join
+        if (criteria.getCustomerEmail() != null && !criteria.getCustomerEmail().isBlank()) {
+            Long userId = userRepository.findByEmail(criteria.getCustomerEmail().trim())
+                    .map(User::getId)
+                    .orElse(null);
+            if (userId == null || (criteria.getUserId() != null && !criteria.getUserId().equals(userId))) {
+                return CursorPagedResponse.<OrderResponse>builder().content(List.of()).size(pageSize).build();
+            }
+            criteria.setUserId(userId);
+        }
+
+        Specification<Order> spec = buildSearchSpecification(criteria, cursor);
+
+        // Keys only; one extra row tells whether another page exists without a COUNT
+        List<Object[]> keys = orderRepository.findSearchKeys(spec, pageSize + 1);
+        boolean hasNext = keys.size() > pageSize;
+        if (hasNext) {
+            keys = keys.subList(0, pageSize);
+        }
+
+        List<Order> orders = loadWithItems(keys.stream().map(key -> (Long) key[0]).toList());
+        String nextCursor = null;
+        if (hasNext) {
+            Object[] last = keys.get(keys.size() - 1);
+            nextCursor = encodeCursor((LocalDateTime) last[1], (Long) last[0]);
         }
 
-        return mapToPagedResponse(orders);
+        return CursorPagedResponse.<OrderResponse>builder()
+                .content(orders.stream().map(this::mapToResponse).collect(Collectors.toList()))
+                .size(pageSize)
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
+                .build();
     }
 
     /**
      * Returns order if user owns it or is admin. Non-owners receive 404
      * (not 403) to avoid leaking order existence information.
+     * Falls back to the archive for orders moved out of the hot tables.
      */
     @Transactional(readOnly = true)
     public OrderResponse getOrderById(Long id) {
         User user = userService.getCurrentUser();
-        Order order = orderRepository.findByIdWithItems(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", id));
+        Order order = orderRepository.findByIdWithItems(id).orElse(null);
+        if (order == null) {
+            ArchivedOrder archived = archivedOrderRepository.findByIdWithItems(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Order", "id", id));
+            if (user.getRole() != Role.ADMIN && !archived.getUserId().equals(user.getId())) {
+                throw new ResourceNotFoundException("Order", "id", id);
+            }
+            return mapArchivedToResponse(archived);
+        }
 
         // Security: return 404 instead of 403 to hide order existence from non-owners
         if (user.getRole() != Role.ADMIN && !order.getUser().getId().equals(user.getId())) {
@@ -155,14 +313,17 @@ public class OrderService {
 
     @Transactional(readOnly = true)
     public OrderResponse getOrderByNumber(String orderNumber) {
-        Order order = orderRepository.findByOrderNumber(orderNumber)
+        return orderRepository.findByOrderNumber(orderNumber)
+                .map(this::mapToResponse)
+                .or(() -> archivedOrderRepository.findByOrderNumberWithItems(orderNumber)
+                        .map(this::mapArchivedToResponse))
                 .orElseThrow(() -> new ResourceNotFoundException("Order", "orderNumber", orderNumber));
-        return mapToResponse(order);
     }
 
     /**
      * Transitions order status and records timestamps for tracking.
-     * Notes are appended (not replaced) to preserve audit trail.
+     * The change and its notes are appended to the order timeline;
+     * re-sending the current status only records the note.
      */
     @Transactional
     public OrderResponse updateOrderStatus(Long id, OrderStatusUpdateRequest request) {
@@ -170,28 +331,133 @@ public class OrderService {
                 .orElseThrow(() -> new ResourceNotFoundException("Order", "id", id));
 
         OrderStatus oldStatus = order.getStatus();
-        order.setStatus(request.getStatus());
-
-        if (request.getNotes() != null) {
-            String existingNotes = order.getNotes() != null ? order.getNotes() + "\n" : "";
-            order.setNotes(existingNotes + request.getNotes());
+        boolean statusChanged = oldStatus != request.getStatus();
+        if (statusChanged && !oldStatus.canTransitionTo(request.getStatus())) {
+            throw new BadRequestException("Cannot change order status from " + oldStatus + " to " + request.getStatus());
         }
+        order.setStatus(request.getStatus());
 
         // Record milestone timestamps for shipment tracking
-        if (request.getStatus() == OrderStatus.SHIPPED) {
+        if (statusChanged && request.getStatus() == OrderStatus.SHIPPED) {
             order.setShippedAt(LocalDateTime.now());
-        } else if (request.getStatus() == OrderStatus.DELIVERED) {
+        } else if (statusChanged && request.getStatus() == OrderStatus.DELIVERED) {
             order.setDeliveredAt(LocalDateTime.now());
+        } else if (statusChanged && request.getStatus() == OrderStatus.CANCELLED) {
+            restoreInventory(order);
         }
 
         order = orderRepository.save(order);
         log.info("Order {} status updated from {} to {}", order.getOrderNumber(), oldStatus, request.getStatus());
 
-        emailService.sendOrderStatusUpdate(order.getUser().getEmail(), order);
+        if (statusChanged) {
+            recordEvent(order.getId(), OrderEventType.STATUS_CHANGED, oldStatus, request.getStatus(), request.getNotes());
+            liveSalesService.statusChanged(order, oldStatus, request.getStatus());
+            outboxService.orderStatusChanged(order, order.getUser().getEmail());
+            if (request.getStatus() == OrderStatus.DELIVERED) {
+                purchaseIndexService.ordersDelivered(List.of(order.getId()));
+            } else if (request.getStatus() == OrderStatus.CANCELLED || request.getStatus() == OrderStatus.REFUNDED) {
+                salesRollupService.orderReversed(order);
+            }
+        } else if (request.getNotes() != null) {
+            recordEvent(order.getId(), OrderEventType.NOTE_ADDED, null, null, request.getNotes());
+        }
 
         return mapToResponse(order);
     }
 
+    /**
+     * Confirms a pending order once its payment succeeded. Returns false when
+     * the order is gone or no longer pending (e.g. cancelled meanwhile), so
+     * the caller can flag the payment for refund.
+     */
+    @Transactional
+    public boolean confirmPayment(Long orderId, String paymentId, String paymentMethod) {
+        Order order = orderRepository.findByIdForUpdate(orderId).orElse(null);
+        if (order == null || order.getStatus() != OrderStatus.PENDING) {
+            return false;
+        }
+
+        order.setPaymentId(paymentId);
+        order.setPaymentMethod(paymentMethod);
+        order.setStatus(OrderStatus.CONFIRMED);
+        order = orderRepository.save(order);
+
+        recordEvent(order.getId(), OrderEventType.STATUS_CHANGED, OrderStatus.PENDING, OrderStatus.CONFIRMED,
+                "Payment " + paymentId);
+        liveSalesService.statusChanged(order, OrderStatus.PENDING, OrderStatus.CONFIRMED);
+        outboxService.orderStatusChanged(order, order.getUser().getEmail());
+        return true;
+    }
+
+    /**
+     * Transitions many orders in set-based UPDATEs (chunked to keep IN lists
+     * bounded). Orders whose current status does not allow the transition are
+     * skipped, not failed. One notification event per chunk is written to the
+     * outbox so emails fan out asynchronously after commit.
+     */
+    @Transactional
+    public BulkOrderStatusUpdateResponse bulkUpdateOrderStatus(BulkOrderStatusUpdateRequest request) {
+        OrderStatus target = request.getStatus();
+        // Cancellation/refund need per-order inventory and payment handling
+        if (target == OrderStatus.PENDING || target == OrderStatus.CANCELLED || target == OrderStatus.REFUNDED) {
+            throw new BadRequestException("Bulk transition to " + target + " is not supported; use the single-order endpoint");
+        }
+
+        List<Long> ids = request.getOrderIds().stream().distinct().toList();
+        Set<OrderStatus> fromStatuses = target.allowedPredecessors();
+        // Truncated so the stamp survives the round trip through TIMESTAMP columns for the read-back
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        Set<Long> updated = new HashSet<>();
+
+        for (int start = 0; start < ids.size(); start += BULK_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(start, Math.min(start + BULK_CHUNK_SIZE, ids.size()));
+            // Previous statuses of the rows about to move, for the live status counts
+            Map<OrderStatus, Long> previous = new EnumMap<>(OrderStatus.class);
+            orderRepository.countByIdInAndStatusIn(chunk, fromStatuses)
+                    .forEach(row -> previous.put((OrderStatus) row[0], ((Number) row[1]).longValue()));
+
+            int count = switch (target) {
+                case SHIPPED -> orderRepository.transitionStatusShipped(chunk, fromStatuses, target, now);
+                case DELIVERED -> orderRepository.transitionStatusDelivered(chunk, fromStatuses, target, now);
+                default -> orderRepository.transitionStatus(chunk, fromStatuses, target, now);
+            };
+            if (count == 0) {
+                continue;
+            }
+            liveSalesService.statusesChanged(previous, target);
+
+            List<OrderRepository.NotificationView> transitioned = orderRepository.findTransitioned(chunk, target, now);
+            if (!transitioned.isEmpty()) {
+                transitioned.forEach(o -> updated.add(o.getId()));
+                // Previous status is not read back per row; the state machine bounds it to fromStatuses
+                String actor = currentActor();
+                orderEventRepository.saveAll(transitioned.stream()
+                        .map(o -> OrderEvent.builder()
+                                .orderId(o.getId())
+                                .type(OrderEventType.STATUS_CHANGED)
+                                .toStatus(target)
+                                .note("Bulk status update")
+                                .actor(actor)
+                                .createdAt(now)
+                                .build())
+                        .toList());
+                outboxService.orderStatusBatchChanged(target, transitioned);
+                if (target == OrderStatus.DELIVERED) {
+                    purchaseIndexService.ordersDelivered(transitioned.stream().map(OrderRepository.NotificationView::getId).toList());
+                }
+            }
+        }
+
+        log.info("Bulk status update to {}: {} of {} orders updated", target, updated.size(), ids.size());
+
+        return BulkOrderStatusUpdateResponse.builder()
+                .status(target.name())
+                .requested(ids.size())
+                .updated(updated.size())
+                .skippedOrderIds(ids.stream().filter(id -> !updated.contains(id)).toList())
+                .build();
+    }
+
     /**
      * Cancels order and restores inventory. Only allowed for PENDING/CONFIRMED
      * orders to prevent cancellation of shipped items.
@@ -212,28 +478,164 @@ public class OrderService {
             throw new BadRequestException("Cannot cancel order in current status: " + order.getStatus());
         }
 
-        // Restore inventory to make items available for other customers
-        for (OrderItem item : order.getItems()) {
-            Product product = item.getProduct();
-            product.setStockQuantity(product.getStockQuantity() + item.getQuantity());
-            productRepository.save(product);
-        }
+        restoreInventory(order);
 
+        OrderStatus oldStatus = order.getStatus();
         order.setStatus(OrderStatus.CANCELLED);
         order = orderRepository.save(order);
+        recordEvent(order.getId(), OrderEventType.STATUS_CHANGED, oldStatus, OrderStatus.CANCELLED, null);
+        salesRollupService.orderReversed(order);
+        liveSalesService.statusChanged(order, oldStatus, OrderStatus.CANCELLED);
 
         log.info("Order {} cancelled", order.getOrderNumber());
 
         return mapToResponse(order);
     }
 
+    /**
+     * Returns the order's timeline oldest first. Same visibility rules as
+     * getOrderById, including archived orders.
+     */
+    @Transactional(readOnly = true)
+    public List<OrderEventResponse> getOrderTimeline(Long id) {
+        User user = userService.getCurrentUser();
+        Long ownerId = orderRepository.findById(id)
+                .map(order -> order.getUser().getId())
+                .or(() -> archivedOrderRepository.findById(id).map(ArchivedOrder::getUserId))
+                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", id));
+
+        if (user.getRole() != Role.ADMIN && !ownerId.equals(user.getId())) {
+            throw new ResourceNotFoundException("Order", "id", id);
+        }
+
+        return orderEventRepository.findByOrderIdOrderByIdAsc(id).stream()
+                .map(this::mapEventToResponse)
+                .collect(Collectors.toList());
+    }
+
     @Transactional(readOnly = true)
     public List<OrderResponse> getRecentOrders() {
-        return orderRepository.findTop10ByOrderByCreatedAtDesc().stream()
+        Page<Long> recentIds = orderRepository.findAllIds(PageRequest.of(0, 10, Sort.by("createdAt").descending()));
+        return loadWithItems(recentIds.getContent()).stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Loads the given orders with their items in a single query, keeping the
+     * order of the id page. Avoids one items query per order when mapping.
+     */
+    private List<Order> loadWithItems(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Order> byId = orderRepository.findAllWithItemsByIdIn(ids).stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    private List<ArchivedOrder> loadArchivedWithItems(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ArchivedOrder> byId = archivedOrderRepository.findAllWithItemsByIdIn(ids).stream()
+                .collect(Collectors.toMap(ArchivedOrder::getId, Function.identity()));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    private Specification<Order> buildSearchSpecification(OrderSearchCriteria criteria, String cursor) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (criteria.getCreatedFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("createdAt"), criteria.getCreatedFrom()));
+            }
+
+            if (criteria.getCreatedTo() != null) {
+                predicates.add(cb.lessThan(root.get("createdAt"), criteria.getCreatedTo()));
+            }
+
+            if (criteria.getStatuses() != null && !criteria.getStatuses().isEmpty()) {
+                predicates.add(root.get("status").in(criteria.getStatuses()));
+            }
+
+            if (criteria.getUserId() != null) {
+                predicates.add(cb.equal(root.get("user").get("id"), criteria.getUserId()));
+            }
+
+            if (criteria.getMinTotal() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("totalAmount"), criteria.getMinTotal()));
+            }
+
+            if (criteria.getMaxTotal() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("totalAmount"), criteria.getMaxTotal()));
+            }
+
+            if (criteria.getPaymentMethod() != null && !criteria.getPaymentMethod().isBlank()) {
+                predicates.add(cb.equal(root.get("paymentMethod"), criteria.getPaymentMethod()));
+            }
+
+            // Keyset: rows strictly after the cursor in (createdAt DESC, id DESC) order
+            if (cursor != null && !cursor.isBlank()) {
+                Cursor position = decodeCursor(cursor);
+                predicates.add(cb.or(
+                        cb.lessThan(root.get("createdAt"), position.createdAt()),
+                        cb.and(cb.equal(root.get("createdAt"), position.createdAt()),
+                                cb.lessThan(root.get("id"), position.id()))));
+            }
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    private String encodeCursor(LocalDateTime createdAt, Long id) {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Cursor decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new Cursor(LocalDateTime.parse(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException ex) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    private record Cursor(LocalDateTime createdAt, Long id) {
+    }
+
+    private void recordEvent(Long orderId, OrderEventType type, OrderStatus from, OrderStatus to, String note) {
+        orderEventRepository.save(OrderEvent.builder()
+                .orderId(orderId)
+                .type(type)
+                .fromStatus(from)
+                .toStatus(to)
+                .note(note)
+                .actor(currentActor())
+                .build());
+    }
+
+    // Name from the security context avoids a user lookup; jobs and gateway callbacks run unauthenticated
+    private String currentActor() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            return "system";
+        }
+        return authentication.getName();
+    }
+
+    // Restore inventory to make items available for other customers
+    private void restoreInventory(Order order) {
+        for (OrderItem item : order.getItems()) {
+            Product product = item.getProduct();
+            product.setStockQuantity(product.getStockQuantity() + item.getQuantity());
+            productRepository.save(product);
+            stockLevelService.stockChanged(product);
+        }
+    }
+
     private BigDecimal calculateShippingCost(BigDecimal subtotal) {
         // Business rule: free shipping threshold
         if (subtotal.compareTo(new BigDecimal("100")) >= 0) {
@@ -271,10 +673,59 @@ public class OrderService {
                 .build();
     }
 
+    private OrderResponse mapArchivedToResponse(ArchivedOrder order) {
+        return OrderResponse.builder()
+                .id(order.getId())
+                .orderNumber(order.getOrderNumber())
+                .items(order.getItems().stream()
+                        .map(this::mapArchivedItemToResponse)
+                        .collect(Collectors.toList()))
+                .subtotal(order.getSubtotal())
+                .shippingCost(order.getShippingCost())
+                .tax(order.getTax())
+                .discount(order.getDiscount())
+                .totalAmount(order.getTotalAmount())
+                .status(order.getStatus().name())
+                .shippingAddress(order.getShippingAddress())
+                .billingAddress(order.getBillingAddress())
+                .paymentId(order.getPaymentId())
+                .paymentMethod(order.getPaymentMethod())
+                .notes(order.getNotes())
+                .createdAt(order.getCreatedAt())
+                .shippedAt(order.getShippedAt())
+                .deliveredAt(order.getDeliveredAt())
+                .archived(true)
+                .build();
+    }
+
+    private OrderItemResponse mapArchivedItemToResponse(ArchivedOrderItem item) {
+        return OrderItemResponse.builder()
+                .id(item.getId())
+                .productId(item.getProductId())
+                .productName(item.getProductName())
+                .productSku(item.getProductSku())
+                .quantity(item.getQuantity())
+                .unitPrice(item.getUnitPrice())
+                .subtotal(item.getSubtotal())
+                .build();
+    }
+
+    private OrderEventResponse mapEventToResponse(OrderEvent event) {
+        return OrderEventResponse.builder()
+                .id(event.getId())
+                .type(event.getType().name())
+                .fromStatus(event.getFromStatus() != null ? event.getFromStatus().name() : null)
+                .toStatus(event.getToStatus() != null ? event.getToStatus().name() : null)
+                .note(event.getNote())
+                .actor(event.getActor())
+                .createdAt(event.getCreatedAt())
+                .build();
+    }
+
     private OrderItemResponse mapItemToResponse(OrderItem item) {
         return OrderItemResponse.builder()
                 .id(item.getId())
-                .productId(item.getProduct().getId())
+                .productId(item.getProductId())
                 .productName(item.getProductName())
                 .productSku(item.getProductSku())
                 .quantity(item.getQuantity())
@@ -283,8 +734,8 @@ public class OrderService {
                 .build();
     }
 
-    private PagedResponse<OrderResponse> mapToPagedResponse(Page<Order> page) {
-        List<OrderResponse> content = page.getContent().stream()
+    private PagedResponse<OrderResponse> mapToPagedResponse(Page<Long> page) {
+        List<OrderResponse> content = loadWithItems(page.getContent()).stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
 
@@ -0,0 +1,129 @@
+package com.ashu.E_Commerece.service;
+
+import com.ashu.E_Commerece.model.OutboxEvent;
+import com.ashu.E_Commerece.model.OutboxStatus;
+import com.ashu.E_Commerece.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Background delivery of outbox events. Each poll claims a batch in a short
+ * transaction (SKIP LOCKED + lease), delivers outside any transaction so no
+ * DB connection is held during downstream calls, then records the outcome.
+ * Failures retry with exponential backoff and become DEAD after max attempts.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxDispatcher {
+
+    private static final List<OutboxStatus> DISPATCHABLE = List.of(OutboxStatus.PENDING, OutboxStatus.IN_FLIGHT);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<OutboxEventHandler> handlers;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${outbox.initial-backoff-ms:1000}")
+    private long initialBackoffMs;
+
+    @Value("${outbox.max-backoff-ms:3600000}")
+    private long maxBackoffMs;
+
+    // Claimed events whose lease expires (dispatcher crash) become due again
+    @Value("${outbox.lease-ms:60000}")
+    private long leaseMs;
+
+    @Scheduled(fixedDelayString = "${outbox.poll-interval-ms:1000}")
+    public void dispatch() {
+        List<OutboxEvent> batch;
+        do {
+            batch = claimBatch();
+            if (!batch.isEmpty()) {
+                deliverBatch(batch);
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    private List<OutboxEvent> claimBatch() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxEvent> events = outboxEventRepository.findDueForDispatch(
+                    DISPATCHABLE, now, PageRequest.of(0, batchSize));
+            for (OutboxEvent event : events) {
+                event.setStatus(OutboxStatus.IN_FLIGHT);
+                event.setAttempts(event.getAttempts() + 1);
+                event.setNextAttemptAt(now.plus(Duration.ofMillis(leaseMs)));
+            }
+            return events;
+        });
+    }
+
+    private void deliverBatch(List<OutboxEvent> batch) {
+        List<Long> delivered = new ArrayList<>();
+        List<OutboxEvent> failed = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+
+        for (OutboxEvent event : batch) {
+            try {
+                JsonNode payload = objectMapper.readTree(event.getPayload());
+                for (OutboxEventHandler handler : handlers) {
+                    if (handler.supports(event.getEventType())) {
+                        handler.handle(event, payload);
+                    }
+                }
+                delivered.add(event.getId());
+            } catch (Exception ex) {
+                log.warn("Outbox event {} ({}) failed on attempt {}: {}",
+                        event.getId(), event.getEventType(), event.getAttempts(), ex.getMessage());
+                failed.add(event);
+                errors.add(ex.getClass().getSimpleName() + ": " + ex.getMessage());
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            if (!delivered.isEmpty()) {
+                outboxEventRepository.markProcessed(delivered, OutboxStatus.DELIVERED, now);
+            }
+            for (int i = 0; i < failed.size(); i++) {
+                OutboxEvent event = failed.get(i);
+                boolean exhausted = event.getAttempts() >= maxAttempts;
+                if (exhausted) {
+                    log.error("Outbox event {} moved to dead letter after {} attempts", event.getId(), event.getAttempts());
+                }
+                outboxEventRepository.markFailed(event.getId(),
+                        exhausted ? OutboxStatus.DEAD : OutboxStatus.PENDING,
+                        now.plus(Duration.ofMillis(backoffMs(event.getAttempts()))),
+                        truncate(errors.get(i)));
+            }
+        });
+    }
+
+    private long backoffMs(int attempts) {
+        long backoff = initialBackoffMs << Math.min(attempts - 1, 30);
+        return Math.min(backoff, maxBackoffMs);
+    }
+
+    private String truncate(String error) {
+        return error.length() > 1000 ? error.substring(0, 1000) : error;
+    }
+}
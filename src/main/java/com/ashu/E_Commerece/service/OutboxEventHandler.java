@@ -0,0 +1,17 @@
+package com.ashu.E_Commerece.service;
+
+import com.ashu.E_Commerece.model.OutboxEvent;
+import com.ashu.E_Commerece.model.OutboxEventType;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Delivers outbox events to a downstream system. Implementations are picked
+ * up as Spring beans; delivery is at-least-once, so handlers must tolerate
+ * redelivery of the same event id.
+ */
+public interface OutboxEventHandler {
+
+    boolean supports(OutboxEventType type);
+
+    void handle(OutboxEvent event, JsonNode payload) throws Exception;
+}
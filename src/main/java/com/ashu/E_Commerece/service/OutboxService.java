@@ -0,0 +1,87 @@
+package com.ashu.E_Commerece.service;
+
+import com.ashu.E_Commerece.model.Order;
+import com.ashu.E_Commerece.model.OrderStatus;
+import com.ashu.E_Commerece.model.OutboxEvent;
+import com.ashu.E_Commerece.model.OutboxEventType;
+import com.ashu.E_Commerece.repository.OrderRepository;
+import com.ashu.E_Commerece.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records side effects in the outbox table. MANDATORY propagation guarantees
+ * the event commits (or rolls back) together with the business change.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void orderCreated(Order order, String customerEmail) {
+        publish(OutboxEventType.ORDER_CREATED, order, customerEmail);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void orderStatusChanged(Order order, String customerEmail) {
+        publish(OutboxEventType.ORDER_STATUS_CHANGED, order, customerEmail);
+    }
+
+    /**
+     * One event per bulk chunk rather than per order; the handler fans the
+     * notifications out when the dispatcher delivers it.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void orderStatusBatchChanged(OrderStatus status, List<OrderRepository.NotificationView> orders) {
+        List<Map<String, Object>> recipients = orders.stream()
+                .map(o -> Map.<String, Object>of(
+                        "orderId", o.getId(),
+                        "orderNumber", o.getOrderNumber(),
+                        "customerEmail", o.getCustomerEmail()))
+                .toList();
+
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("status", status.name());
+        payload.put("orders", recipients);
+
+        outboxEventRepository.save(OutboxEvent.builder()
+                .eventType(OutboxEventType.ORDER_STATUS_BATCH_CHANGED)
+                .aggregateId(orders.get(0).getId())
+                .payload(toJson(payload))
+                .build());
+    }
+
+    private void publish(OutboxEventType type, Order order, String customerEmail) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("orderId", order.getId());
+        payload.put("orderNumber", order.getOrderNumber());
+        payload.put("customerEmail", customerEmail);
+        payload.put("status", order.getStatus().name());
+        payload.put("totalAmount", order.getTotalAmount());
+
+        outboxEventRepository.save(OutboxEvent.builder()
+                .eventType(type)
+                .aggregateId(order.getId())
+                .payload(toJson(payload))
+                .build());
+    }
+
+    private String toJson(Map<String, Object> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize outbox payload", e);
+        }
+    }
+}
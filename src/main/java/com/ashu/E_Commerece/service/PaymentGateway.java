@@ -0,0 +1,18 @@
+package com.ashu.E_Commerece.service;
+
+import com.ashu.E_Commerece.dto.payment.GatewayChargeRequest;
+
+/**
+ * Outbound port to the payment provider. Implementations may block for the
+ * provider's latency; callers run them on the payment executor, never on a
+ * request thread or inside a transaction. The outcome of a charge is reported
+ * later through the signed callback endpoint, not by the return of submit.
+ */
+public interface PaymentGateway {
+
+    /**
+     * Submits a charge. Throws if the provider did not accept it, in which
+     * case no callback will follow.
+     */
+    void submit(GatewayChargeRequest charge);
+}
@@ -0,0 +1,434 @@
+package com.ashu.E_Commerece.service;
+
+import com.ashu.E_Commerece.dto.payment.ReconciliationSummary;
+import com.ashu.E_Commerece.exception.BadRequestException;
+import com.ashu.E_Commerece.exception.ConflictException;
+import com.ashu.E_Commerece.exception.ResourceNotFoundException;
+import com.ashu.E_Commerece.model.PaymentStatus;
+import com.ashu.E_Commerece.repository.PaymentRepository;
+import com.ashu.E_Commerece.util.Csv;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Nightly reconciliation of the payment ledger against the gateway's
+ * settlement file. The file is streamed in chunks; each chunk is sorted by
+ * payment id, matched against the ledger with one indexed IN query and diffed
+ * on a worker pool, so the database sees a few thousand set lookups instead
+ * of millions of point queries. A final streamed pass over the day's ledger
+ * successes finds payments the gateway never settled. Mismatches go to a CSV
+ * report; matched rows are only counted.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentReconciliationService {
+
+    public enum MismatchType {
+        UNKNOWN_PAYMENT,
+        AMOUNT_MISMATCH,
+        STATUS_MISMATCH,
+        DUPLICATE_SETTLEMENT,
+        MISSING_IN_SETTLEMENT,
+        MALFORMED_ROW
+    }
+
+    private static final String REPORT_HEADER = "type,payment_id,order_id,ledger_amount,settled_amount,ledger_status,detail";
+
+    private final PaymentRepository paymentRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnlyTransaction;
+    private final AtomicBoolean running = new AtomicBoolean();
+    // Admin-started runs go off the request thread, which would otherwise hold the call open for the whole file
+    private ExecutorService executor;
+    // Latest run per settlement day, for status lookups
+    private final Cache<LocalDate, ReconciliationSummary> runs = Caffeine.newBuilder().maximumSize(400).build();
+
+    @Value("${reconciliation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${reconciliation.settlement-dir:./settlements}")
+    private String settlementDir;
+
+    @Value("${reconciliation.report-dir:./reports}")
+    private String reportDir;
+
+    @Value("${reconciliation.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${reconciliation.parallelism:4}")
+    private int parallelism;
+
+    @PostConstruct
+    void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("reconciliation-", 0).factory());
+    }
+
+    @PreDestroy
+    void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    // Settlement files for a day are published early the next morning
+    @Scheduled(cron = "${reconciliation.cron:0 0 5 * * *}")
+    public void scheduledReconciliation() {
+        if (!enabled) {
+            return;
+        }
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        if (!Files.exists(settlementFile(yesterday))) {
+            log.warn("No settlement file for {} in {}", yesterday, settlementDir);
+            return;
+        }
+        reconcile(yesterday);
+    }
+
+    /**
+     * Starts reconciling the settlement file {@code settlement-<date>.csv} in
+     * the background and returns at once; poll {@link #getRun} for the outcome.
+     * The file needs a header with at least {@code payment_id} and {@code amount}.
+     */
+    public ReconciliationSummary startReconciliation(LocalDate date) {
+        claim(date);
+        ReconciliationSummary started = runs.getIfPresent(date);
+        try {
+            executor.execute(() -> {
+                try {
+                    run(date);
+                } catch (RuntimeException ex) {
+                    log.error("Reconciliation of {} failed", date, ex);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            fail(date, ex);
+            throw ex;
+        }
+        return started;
+    }
+
+    /**
+     * Reconciles the settlement file for the day on the calling thread.
+     */
+    public ReconciliationSummary reconcile(LocalDate date) {
+        claim(date);
+        return run(date);
+    }
+
+    /**
+     * The latest run for the day since startup: running, completed or failed.
+     */
+    public ReconciliationSummary getRun(LocalDate date) {
+        ReconciliationSummary summary = runs.getIfPresent(date);
+        if (summary == null) {
+            throw new ResourceNotFoundException("Reconciliation", "date", date);
+        }
+        return summary;
+    }
+
+    private void claim(LocalDate date) {
+        if (!Files.exists(settlementFile(date))) {
+            throw new ResourceNotFoundException("Settlement file", "date", date);
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new ConflictException("A reconciliation is already running");
+        }
+        runs.put(date, ReconciliationSummary.builder()
+                .settlementDate(date)
+                .status(ReconciliationSummary.Status.RUNNING)
+                .startedAt(LocalDateTime.now())
+                .reportFile(reportFile(date).toString())
+                .build());
+    }
+
+    private void fail(LocalDate date, RuntimeException ex) {
+        ReconciliationSummary current = runs.getIfPresent(date);
+        runs.put(date, ReconciliationSummary.builder()
+                .settlementDate(date)
+                .status(ReconciliationSummary.Status.FAILED)
+                .startedAt(current != null ? current.getStartedAt() : null)
+                .failureReason(ex.getMessage())
+                .reportFile(reportFile(date).toString())
+                .build());
+        running.set(false);
+    }
+
+    // Caller holds the running flag
+    private ReconciliationSummary run(LocalDate date) {
+        Path settlement = settlementFile(date);
+        ReconciliationSummary current = runs.getIfPresent(date);
+        LocalDateTime startedAt = current != null ? current.getStartedAt() : LocalDateTime.now();
+        long started = System.currentTimeMillis();
+        Path report = reportFile(date);
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism);
+        try (Csv.Reader reader = new Csv.Reader(Files.newBufferedReader(settlement, StandardCharsets.UTF_8));
+             BufferedWriter writer = createReport(report)) {
+
+            Run run = new Run(writer);
+            readSettlement(reader, run, workers);
+            findUnsettled(date, run);
+
+            ReconciliationSummary summary = run.summary(date, report, System.currentTimeMillis() - started);
+            summary.setStartedAt(startedAt);
+            runs.put(date, summary);
+            log.info("Reconciled {}: {} settlement rows, {} matched, {} mismatches in {} ms",
+                    date, summary.getSettlementRows(), summary.getMatched(), summary.getMismatches(),
+                    summary.getDurationMs());
+            return summary;
+        } catch (IOException ex) {
+            UncheckedIOException failure = new UncheckedIOException("Reconciliation failed for " + date, ex);
+            fail(date, failure);
+            throw failure;
+        } catch (RuntimeException ex) {
+            fail(date, ex);
+            throw ex;
+        } finally {
+            workers.shutdownNow();
+            running.set(false);
+        }
+    }
+
+    private void readSettlement(Csv.Reader reader, Run run, ExecutorService workers) throws IOException {
+        List<String> header = reader.readRecord();
+        if (header == null) {
+            throw new BadRequestException("Settlement file is empty");
+        }
+        List<String> columns = header.stream().map(c -> c.trim().toLowerCase()).toList();
+        int idColumn = columns.indexOf("payment_id");
+        int amountColumn = columns.indexOf("amount");
+        if (idColumn < 0 || amountColumn < 0) {
+            throw new BadRequestException("Settlement file needs payment_id and amount columns");
+        }
+
+        // Bounded in-flight chunks keep memory flat however large the file is
+        Semaphore inFlight = new Semaphore(parallelism * 2);
+        List<Future<?>> pending = new ArrayList<>();
+        List<SettlementRow> chunk = new ArrayList<>(chunkSize);
+
+        List<String> fields;
+        while ((fields = reader.readRecord()) != null) {
+            if (fields.size() == 1 && fields.get(0).isBlank()) {
+                continue;
+            }
+            run.settlementRows.increment();
+            SettlementRow row = parse(fields, idColumn, amountColumn);
+            if (row == null) {
+                run.mismatch(MismatchType.MALFORMED_ROW, null, null, null, null, "line " + reader.getLineNumber());
+                continue;
+            }
+            chunk.add(row);
+            if (chunk.size() == chunkSize) {
+                pending.add(submit(chunk, run, workers, inFlight));
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            pending.add(submit(chunk, run, workers, inFlight));
+        }
+
+        for (Future<?> future : pending) {
+            await(future);
+        }
+    }
+
+    private Future<?> submit(List<SettlementRow> chunk, Run run, ExecutorService workers, Semaphore inFlight) {
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading settlement file", ex);
+        }
+        return workers.submit(() -> {
+            try {
+                diffChunk(chunk, run);
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    private void diffChunk(List<SettlementRow> chunk, Run run) {
+        // Sorted keys walk the payment_id index in order
+        chunk.sort(Comparator.comparing(SettlementRow::paymentId));
+        List<String> ids = chunk.stream().map(SettlementRow::paymentId).distinct().toList();
+        Map<String, PaymentRepository.SettlementView> ledger = readOnlyTransaction.execute(status ->
+                paymentRepository.findSettlementViews(ids)).stream()
+                .collect(Collectors.toMap(PaymentRepository.SettlementView::getPaymentId, Function.identity()));
+
+        for (SettlementRow row : chunk) {
+            PaymentRepository.SettlementView payment = ledger.get(row.paymentId());
+            if (payment == null) {
+                run.mismatch(MismatchType.UNKNOWN_PAYMENT, row.paymentId(), null, null, row.amount(), null);
+                continue;
+            }
+            if (!run.markSettled(payment.getId())) {
+                run.mismatch(MismatchType.DUPLICATE_SETTLEMENT, payment, row.amount(), null);
+                continue;
+            }
+            if (payment.getStatus() != PaymentStatus.SUCCESS) {
+                run.mismatch(MismatchType.STATUS_MISMATCH, payment, row.amount(), "settled but ledger is " + payment.getStatus());
+            } else if (payment.getAmount().compareTo(row.amount()) != 0) {
+                run.mismatch(MismatchType.AMOUNT_MISMATCH, payment, row.amount(), null);
+            } else {
+                run.matched.increment();
+            }
+        }
+    }
+
+    // Ledger successes of the day that no settlement row claimed
+    private void findUnsettled(LocalDate date, Run run) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<PaymentRepository.SettlementView> succeeded = paymentRepository.streamSucceededBetween(
+                    date.atStartOfDay(), date.plusDays(1).atStartOfDay())) {
+                succeeded.filter(payment -> !run.isSettled(payment.getId()))
+                        .forEach(payment -> run.mismatch(MismatchType.MISSING_IN_SETTLEMENT, payment, null, null));
+            }
+        });
+    }
+
+    private SettlementRow parse(List<String> fields, int idColumn, int amountColumn) {
+        if (fields.size() <= Math.max(idColumn, amountColumn) || fields.get(idColumn).isBlank()) {
+            return null;
+        }
+        try {
+            // Gateways may quote amounts with thousands separators, e.g. "1,234.50"
+            return new SettlementRow(fields.get(idColumn).trim(),
+                    new BigDecimal(fields.get(amountColumn).trim().replace(",", "")));
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    private BufferedWriter createReport(Path report) throws IOException {
+        Files.createDirectories(report.getParent());
+        BufferedWriter writer = Files.newBufferedWriter(report, StandardCharsets.UTF_8);
+        writer.write(REPORT_HEADER);
+        writer.newLine();
+        return writer;
+    }
+
+    private Path reportFile(LocalDate date) {
+        return Paths.get(reportDir).resolve("reconciliation-" + date + ".csv");
+    }
+
+    private Path settlementFile(LocalDate date) {
+        return Paths.get(settlementDir).resolve("settlement-" + date + ".csv");
+    }
+
+    private void await(Future<?> future) {
+        try {
+            future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reconciling", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Reconciliation chunk failed", ex.getCause());
+        }
+    }
+
+    private record SettlementRow(String paymentId, BigDecimal amount) {
+    }
+
+    /**
+     * Mutable state of one run, shared by the worker threads. Settled ledger
+     * rows are tracked in a BitSet over the surrogate id (dense sequence
+     * values), a few MB even for tens of millions of payments.
+     */
+    private static final class Run {
+
+        private final BufferedWriter writer;
+        private final BitSet settled = new BitSet();
+        private final Set<Long> settledOverflow = new HashSet<>();
+        private final LongAdder settlementRows = new LongAdder();
+        private final LongAdder matched = new LongAdder();
+        private final Map<MismatchType, LongAdder> mismatches = new ConcurrentHashMap<>();
+
+        Run(BufferedWriter writer) {
+            this.writer = writer;
+        }
+
+        synchronized boolean markSettled(long id) {
+            if (id > Integer.MAX_VALUE) {
+                return settledOverflow.add(id);
+            }
+            if (settled.get((int) id)) {
+                return false;
+            }
+            settled.set((int) id);
+            return true;
+        }
+
+        synchronized boolean isSettled(long id) {
+            return id > Integer.MAX_VALUE ? settledOverflow.contains(id) : settled.get((int) id);
+        }
+
+        void mismatch(MismatchType type, PaymentRepository.SettlementView payment, BigDecimal settledAmount, String detail) {
+            mismatch(type, payment.getPaymentId(), payment.getOrderId(), payment.getAmount(), settledAmount,
+                    detail, payment.getStatus());
+        }
+
+        void mismatch(MismatchType type, String paymentId, Long orderId, BigDecimal ledgerAmount,
+                      BigDecimal settledAmount, String detail) {
+            mismatch(type, paymentId, orderId, ledgerAmount, settledAmount, detail, null);
+        }
+
+        private void mismatch(MismatchType type, String paymentId, Long orderId, BigDecimal ledgerAmount,
+                              BigDecimal settledAmount, String detail, PaymentStatus ledgerStatus) {
+            mismatches.computeIfAbsent(type, t -> new LongAdder()).increment();
+            String line = String.join(",", type.name(), Csv.field(paymentId), Csv.field(orderId),
+                    Csv.field(ledgerAmount), Csv.field(settledAmount), Csv.field(ledgerStatus), Csv.field(detail));
+            synchronized (writer) {
+                try {
+                    writer.write(line);
+                    writer.newLine();
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }
+        }
+
+        ReconciliationSummary summary(LocalDate date, Path report, long durationMs) {
+            Map<String, Long> byType = new TreeMap<>();
+            mismatches.forEach((type, count) -> byType.put(type.name(), count.sum()));
+            return ReconciliationSummary.builder()
+                    .settlementDate(date)
+                    .settlementRows(settlementRows.sum())
+                    .matched(matched.sum())
+                    .mismatches(byType.values().stream().mapToLong(Long::longValue).sum())
+                    .mismatchesByType(byType)
+                    .status(ReconciliationSummary.Status.COMPLETED)
+                    .reportFile(report.toString())
+                    .durationMs(durationMs)
+                    .build();
+        }
+    }
+}
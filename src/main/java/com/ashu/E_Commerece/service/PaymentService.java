@@ -1,81 +1,315 @@
 package com.ashu.E_Commerece.service;
 
+import com.ashu.E_Commerece.dto.payment.GatewayChargeRequest;
+import com.ashu.E_Commerece.dto.payment.PaymentCallbackRequest;
 import com.ashu.E_Commerece.dto.payment.PaymentRequest;
 import com.ashu.E_Commerece.dto.payment.PaymentResponse;
 import com.ashu.E_Commerece.exception.BadRequestException;
+import com.ashu.E_Commerece.exception.ConflictException;
 import com.ashu.E_Commerece.exception.ResourceNotFoundException;
+import com.ashu.E_Commerece.model.ArchivedOrder;
 import com.ashu.E_Commerece.model.Order;
 import com.ashu.E_Commerece.model.OrderStatus;
+import com.ashu.E_Commerece.model.Payment;
+import com.ashu.E_Commerece.model.PaymentStatus;
+import com.ashu.E_Commerece.model.Role;
+import com.ashu.E_Commerece.model.User;
+import com.ashu.E_Commerece.repository.ArchivedOrderRepository;
 import com.ashu.E_Commerece.repository.OrderRepository;
+import com.ashu.E_Commerece.repository.PaymentRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
 
+/**
+ * Asynchronous payment pipeline. A request only registers a PENDING attempt
+ * in a short transaction; the gateway call runs on a virtual thread outside
+ * any transaction, and the outcome is applied when the gateway's callback
+ * arrives. Attempts without a callback are failed after a timeout.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class PaymentService {
 
     private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final PaymentRepository paymentRepository;
+    private final UserService userService;
+    private final OrderService orderService;
+    private final DataMigrationService dataMigrationService;
+    private final PaymentGateway paymentGateway;
+    private final TransactionTemplate transactionTemplate;
 
-    @Transactional
+    private static final int LEGACY_BACKFILL_CHUNK = 500;
+
+    private ExecutorService executor;
+    private Semaphore inFlight;
+
+    // Caps concurrent calls to the provider; extra submissions wait on their own virtual thread
+    @Value("${payment.gateway.max-in-flight:200}")
+    private int maxInFlight;
+
+    @Value("${payment.pending-timeout-ms:600000}")
+    private long pendingTimeoutMs;
+
+    @PostConstruct
+    void initExecutor() {
+        // Gateway calls mostly wait on the network; a virtual thread per call costs almost nothing while blocked
+        executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("payment-", 0).factory());
+        inFlight = new Semaphore(maxInFlight);
+    }
+
+    @PreDestroy
+    void shutdownExecutor() {
+        executor.close();
+    }
+
+    /**
+     * Registers a PENDING payment attempt and hands it to the gateway. Returns
+     * immediately; poll the payment status or the order for the outcome.
+     */
     public PaymentResponse processPayment(PaymentRequest request) {
-        Order order = orderRepository.findById(request.getOrderId())
-                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", request.getOrderId()));
+        record Registered(Payment payment, String orderNumber) {
+        }
+
+        Registered registered = transactionTemplate.execute(status -> {
+            // Row lock so two concurrent requests cannot both start an attempt
+            Order order = orderRepository.findByIdForUpdate(request.getOrderId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Order", "id", request.getOrderId()));
+
+            if (order.getStatus() != OrderStatus.PENDING) {
+                throw new BadRequestException("Order is not in pending status");
+            }
+
+            if (order.getTotalAmount().compareTo(request.getAmount()) != 0) {
+                throw new BadRequestException("Payment amount does not match order total");
+            }
 
-        if (order.getStatus() != OrderStatus.PENDING) {
-            throw new BadRequestException("Order is not in pending status");
+            if (paymentRepository.existsByOrderIdAndStatus(order.getId(), PaymentStatus.PENDING)) {
+                throw new ConflictException("A payment for this order is already in progress");
+            }
+
+            // Every attempt gets a ledger row, so retries after a failure stay traceable
+            Payment payment = paymentRepository.save(Payment.builder()
+                    .paymentId("PAY-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase())
+                    .orderId(order.getId())
+                    .attempt(paymentRepository.countByOrderId(order.getId()) + 1)
+                    .amount(request.getAmount())
+                    .paymentMethod(request.getPaymentMethod())
+                    .build());
+            return new Registered(payment, order.getOrderNumber());
+        });
+
+        Payment payment = registered.payment();
+        log.info("Payment {} registered for order {} ({})", payment.getPaymentId(), registered.orderNumber(),
+                payment.getAmount());
+
+        GatewayChargeRequest charge = GatewayChargeRequest.builder()
+                .paymentId(payment.getPaymentId())
+                .orderNumber(registered.orderNumber())
+                .amount(payment.getAmount())
+                .paymentMethod(payment.getPaymentMethod())
+                .build();
+        // Called inside an idempotent request's transaction, the attempt is only submitted once that commits
+        Runnable submit = () -> executor.execute(() -> submitToGateway(charge));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit.run();
+                }
+            });
+        } else {
+            submit.run();
         }
 
-        if (order.getTotalAmount().compareTo(request.getAmount()) != 0) {
-            throw new BadRequestException("Payment amount does not match order total");
+        return mapToResponse(payment, "Payment accepted for processing");
+    }
+
+    private void submitToGateway(GatewayChargeRequest charge) {
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            markFailed(charge.getPaymentId(), "Payment submission interrupted");
+            return;
+        }
+        try {
+            paymentGateway.submit(charge);
+        } catch (Exception ex) {
+            log.warn("Gateway rejected payment {}: {}", charge.getPaymentId(), ex.getMessage());
+            markFailed(charge.getPaymentId(), "Gateway error: " + ex.getMessage());
+        } finally {
+            inFlight.release();
         }
+    }
 
-        // Mock payment processing
-        String paymentId = "PAY-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-        
-        log.info("=== MOCK PAYMENT PROCESSING ===");
-        log.info("Payment ID: {}", paymentId);
-        log.info("Order: {}", order.getOrderNumber());
-        log.info("Amount: ${}", request.getAmount());
-        log.info("Method: {}", request.getPaymentMethod());
-        log.info("Status: SUCCESS");
-        log.info("================================");
-
-        order.setPaymentId(paymentId);
-        order.setPaymentMethod(request.getPaymentMethod());
-        order.setStatus(OrderStatus.CONFIRMED);
-        orderRepository.save(order);
+    private void markFailed(String paymentId, String reason) {
+        String truncated = reason.length() > 500 ? reason.substring(0, 500) : reason;
+        transactionTemplate.executeWithoutResult(status ->
+                paymentRepository.markFailedIfPending(paymentId, truncated, LocalDateTime.now()));
+    }
 
-        return PaymentResponse.builder()
-                .paymentId(paymentId)
-                .orderId(order.getId())
-                .amount(request.getAmount())
-                .status("SUCCESS")
-                .paymentMethod(request.getPaymentMethod())
-                .message("Payment processed successfully (MOCK)")
-                .processedAt(LocalDateTime.now())
-                .build();
+    /**
+     * Applies a gateway outcome. Callbacks are delivered at least once, so
+     * repeats are ignored. The gateway is authoritative: a success arriving
+     * after the attempt timed out still confirms the order if it is pending.
+     */
+    @Transactional
+    public void handleCallback(PaymentCallbackRequest callback) {
+        if (callback.getStatus() == PaymentStatus.PENDING) {
+            throw new BadRequestException("Callback status must be SUCCESS or FAILED");
+        }
+
+        Payment payment = paymentRepository.findByPaymentIdForUpdate(callback.getPaymentId())
+                .orElseThrow(() -> new ResourceNotFoundException("Payment", "id", callback.getPaymentId()));
+
+        if (payment.getStatus() == PaymentStatus.SUCCESS
+                || (payment.getStatus() == PaymentStatus.FAILED && callback.getStatus() == PaymentStatus.FAILED)) {
+            log.debug("Ignoring repeated callback for payment {}", payment.getPaymentId());
+            return;
+        }
+
+        payment.setGatewayReference(callback.getGatewayReference());
+        payment.setCompletedAt(LocalDateTime.now());
+
+        if (callback.getStatus() == PaymentStatus.SUCCESS) {
+            payment.setStatus(PaymentStatus.SUCCESS);
+            payment.setFailureReason(null);
+            if (!orderService.confirmPayment(payment.getOrderId(), payment.getPaymentId(), payment.getPaymentMethod())) {
+                log.warn("Payment {} succeeded but order {} is no longer pending; refund required",
+                        payment.getPaymentId(), payment.getOrderId());
+            }
+        } else {
+            payment.setStatus(PaymentStatus.FAILED);
+            payment.setFailureReason(callback.getFailureReason() != null ? callback.getFailureReason() : "Declined");
+        }
+        paymentRepository.save(payment);
+
+        log.info("Payment {} completed with status {}", payment.getPaymentId(), payment.getStatus());
     }
 
+    /**
+     * Copies payments made before the ledger existed into it, so their ids
+     * keep resolving. They are recorded as they were reported then: one
+     * successful attempt for the order total. Runs once per database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillLegacyPayments() {
+        dataMigrationService.runOnceInChunks("payments.legacy-backfill", this::copyLegacyPayments);
+    }
+
+    private int copyLegacyPayments() {
+        int total = 0;
+        while (true) {
+            Integer copied = transactionTemplate.execute(status -> {
+                List<Payment> payments = paymentRepository.findUnrecordedLegacyPayments(LEGACY_BACKFILL_CHUNK).stream()
+                        .map(row -> {
+                            LocalDateTime paidAt = toLocalDateTime(row[4]);
+                            return Payment.builder()
+                                    .paymentId((String) row[0])
+                                    .orderId(((Number) row[1]).longValue())
+                                    .attempt(1)
+                                    .amount((BigDecimal) row[2])
+                                    .paymentMethod((String) row[3])
+                                    .status(PaymentStatus.SUCCESS)
+                                    .createdAt(paidAt)
+                                    .completedAt(paidAt)
+                                    .build();
+                        })
+                        .collect(Collectors.toList());
+                paymentRepository.saveAll(payments);
+                return payments.size();
+            });
+            total += copied;
+            if (copied < LEGACY_BACKFILL_CHUNK) {
+                return total;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${payment.sweep-interval-ms:60000}")
+    public void failStalePayments() {
+        LocalDateTime now = LocalDateTime.now();
+        Integer failed = transactionTemplate.execute(status -> paymentRepository.failStalePending(
+                now.minus(Duration.ofMillis(pendingTimeoutMs)), "No response from payment gateway", now));
+        if (failed != null && failed > 0) {
+            log.warn("Failed {} payment attempts with no gateway response", failed);
+        }
+    }
+
+    // Single lookup on the unique payment_id index
+    @Transactional(readOnly = true)
     public PaymentResponse getPaymentStatus(String paymentId) {
-        Order order = orderRepository.findAll().stream()
-                .filter(o -> paymentId.equals(o.getPaymentId()))
-                .findFirst()
+        Payment payment = paymentRepository.findByPaymentId(paymentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Payment", "id", paymentId));
+        return mapToResponse(payment, statusMessage(payment));
+    }
+
+    /**
+     * Lists all payment attempts for an order, oldest first. Visible to the
+     * order owner and admins; others get 404 as with order lookups.
+     */
+    @Transactional(readOnly = true)
+    public List<PaymentResponse> getOrderPayments(Long orderId) {
+        User user = userService.getCurrentUser();
+        Long ownerId = orderRepository.findById(orderId)
+                .map(order -> order.getUser().getId())
+                .or(() -> archivedOrderRepository.findById(orderId).map(ArchivedOrder::getUserId))
+                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
+
+        if (user.getRole() != Role.ADMIN && !ownerId.equals(user.getId())) {
+            throw new ResourceNotFoundException("Order", "id", orderId);
+        }
+
+        return paymentRepository.findByOrderIdOrderByAttemptAsc(orderId).stream()
+                .map(payment -> mapToResponse(payment, statusMessage(payment)))
+                .collect(Collectors.toList());
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
+    }
+
+    private String statusMessage(Payment payment) {
+        return switch (payment.getStatus()) {
+            case SUCCESS -> "Payment completed";
+            case PENDING -> "Payment in progress";
+            case FAILED -> payment.getFailureReason() != null ? payment.getFailureReason() : "Payment failed";
+        };
+    }
 
+    private PaymentResponse mapToResponse(Payment payment, String message) {
         return PaymentResponse.builder()
-                .paymentId(paymentId)
-                .orderId(order.getId())
-                .amount(order.getTotalAmount())
-                .status("SUCCESS")
-                .paymentMethod(order.getPaymentMethod())
-                .message("Payment completed")
-                .processedAt(order.getUpdatedAt())
+                .paymentId(payment.getPaymentId())
+                .orderId(payment.getOrderId())
+                .amount(payment.getAmount())
+                .status(payment.getStatus().name())
+                .paymentMethod(payment.getPaymentMethod())
+                .message(message)
+                .processedAt(payment.getCompletedAt() != null ? payment.getCompletedAt() : payment.getCreatedAt())
                 .build();
     }
 }
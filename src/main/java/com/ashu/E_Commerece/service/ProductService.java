@@ -1,5 +1,6 @@
 package com.ashu.E_Commerece.service;
 
+import com.ashu.E_Commerece.config.CacheConfig;
 import com.ashu.E_Commerece.dto.common.PagedResponse;
 import com.ashu.E_Commerece.dto.product.ProductRequest;
 import com.ashu.E_Commerece.dto.product.ProductResponse;
@@ -23,9 +24,10 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -39,6 +41,8 @@ public class ProductService {
 
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
+    private final BestSellerService bestSellerService;
+    private final StockLevelService stockLevelService;
 
     /**
      * Get all products with pagination.
@@ -109,6 +113,25 @@ public class ProductService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Active best sellers of the window (1h, 24h or 7d), most units first.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(value = CacheConfig.BEST_SELLERS, key = "#window")
+    public List<ProductResponse> getBestSellers(String window) {
+        List<Long> ids = bestSellerService.topSellers(BestSellerService.Window.fromLabel(window), 20).stream()
+                .map(BestSellerService.Seller::productId)
+                .toList();
+        Map<Long, Product> products = productRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        return ids.stream()
+                .map(products::get)
+                .filter(product -> product != null && product.isActive())
+                .limit(10)
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+    }
+
     @Transactional(readOnly = true)
     public List<ProductResponse> getNewestProducts() {
         return productRepository.findTop10ByActiveTrueOrderByCreatedAtDesc()
@@ -145,6 +168,7 @@ public class ProductService {
         }
 
         product = productRepository.save(product);
+        stockLevelService.stockChanged(product);
         log.info("Product created: {}", product.getName());
 
         return mapToResponse(product);
@@ -186,6 +210,7 @@ public class ProductService {
         }
 
         product = productRepository.save(product);
+        stockLevelService.stockChanged(product);
         log.info("Product updated: {}", product.getName());
 
         return mapToResponse(product);
@@ -198,6 +223,7 @@ public class ProductService {
         Product product = findProductById(id);
         product.setActive(false);
         productRepository.save(product);
+        stockLevelService.stockChanged(product);
         log.info("Product deactivated: {}", product.getName());
     }
 
@@ -210,15 +236,7 @@ public class ProductService {
         }
         product.setStockQuantity(newStock);
         productRepository.save(product);
-    }
-
-    // Called by ReviewService when reviews change - updates denormalized rating
-    @Transactional
-    public void updateProductRating(Long productId, BigDecimal averageRating, int reviewCount) {
-        Product product = findProductById(productId);
-        product.setAverageRating(averageRating);
-        product.setReviewCount(reviewCount);
-        productRepository.save(product);
+        stockLevelService.stockChanged(product);
     }
 
     private Product findProductById(Long id) {
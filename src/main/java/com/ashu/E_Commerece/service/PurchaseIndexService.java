@@ -0,0 +1,176 @@
+package com.ashu.E_Commerece.service;
+
+import com.ashu.E_Commerece.repository.ArchivedOrderRepository;
+import com.ashu.E_Commerece.repository.OrderRepository;
+import com.ashu.E_Commerece.repository.ReviewRepository;
+import com.ashu.E_Commerece.util.BloomFilter;
+import com.ashu.E_Commerece.util.LongHashSet;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * In-memory index of (userId, productId) pairs with a delivered order, used
+ * to flag verified-purchase reviews without joining order_items. A Bloom
+ * filter answers most "never bought it" lookups from a small bit array; hits
+ * are confirmed in a primitive hash set, so the answer is exact. The index is
+ * loaded once at startup and grows as orders are delivered; until the load
+ * finishes, lookups fall back to an indexed existence query.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PurchaseIndexService {
+
+    private static final int LOAD_BATCH_SIZE = 10_000;
+
+    private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final ReviewRepository reviewRepository;
+    private final DataMigrationService dataMigrationService;
+    private final PlatformTransactionManager transactionManager;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private BloomFilter filter;
+    private LongHashSet purchases;
+    private volatile boolean ready;
+
+    @Value("${purchase-index.expected-pairs:1000000}")
+    private int expectedPairs;
+
+    @Value("${purchase-index.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @PostConstruct
+    void init() {
+        filter = new BloomFilter(expectedPairs, falsePositiveRate);
+        purchases = new LongHashSet(expectedPairs);
+    }
+
+    /**
+     * Loads delivered purchases off the startup thread. Deliveries recorded
+     * meanwhile go into the same structures, so nothing is lost.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Thread.ofVirtual().name("purchase-index-loader").start(() -> {
+            try {
+                long started = System.currentTimeMillis();
+                TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+                readOnly.setReadOnly(true);
+                readOnly.executeWithoutResult(status -> {
+                    try (Stream<Object[]> pairs = orderRepository.streamDeliveredPurchasePairs()) {
+                        List<long[]> batch = new ArrayList<>(LOAD_BATCH_SIZE);
+                        pairs.forEach(row -> {
+                            batch.add(new long[]{((Number) row[0]).longValue(), ((Number) row[1]).longValue()});
+                            if (batch.size() == LOAD_BATCH_SIZE) {
+                                addAll(batch);
+                                batch.clear();
+                            }
+                        });
+                        addAll(batch);
+                    }
+                });
+
+                int verified = dataMigrationService.runOnce("reviews.verified-backfill", reviewRepository::backfillVerified);
+                ready = true;
+                log.info("Purchase index loaded: {} pairs in {} ms, {} reviews newly verified",
+                        size(), System.currentTimeMillis() - started, verified);
+            } catch (RuntimeException ex) {
+                log.error("Purchase index load failed; verification falls back to database lookups", ex);
+            }
+        });
+    }
+
+    /**
+     * Whether the user has a delivered order containing the product.
+     */
+    public boolean hasPurchased(Long userId, Long productId) {
+        if (!ready || !packable(userId, productId)) {
+            return orderRepository.existsDeliveredPurchase(userId, productId)
+                    || archivedOrderRepository.existsDeliveredPurchase(userId, productId);
+        }
+        long key = key(userId, productId);
+        lock.readLock().lock();
+        try {
+            return filter.mightContain(key) && purchases.contains(key);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Records purchases of orders that just reached DELIVERED. Must run in
+     * the transaction that delivered them: existing reviews are verified in
+     * the same transaction and the index is updated after commit.
+     */
+    public void ordersDelivered(Collection<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+        List<long[]> pairs = orderRepository.findDeliveredPurchasePairs(orderIds).stream()
+                .map(row -> new long[]{(Long) row[0], (Long) row[1]})
+                .toList();
+
+        Map<Long, List<Long>> productsByUser = pairs.stream().collect(Collectors.groupingBy(
+                pair -> pair[0], Collectors.mapping(pair -> pair[1], Collectors.toList())));
+        productsByUser.forEach(reviewRepository::markVerified);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                addAll(pairs);
+            }
+        });
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return purchases.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addAll(List<long[]> pairs) {
+        lock.writeLock().lock();
+        try {
+            for (long[] pair : pairs) {
+                if (packable(pair[0], pair[1])) {
+                    long key = key(pair[0], pair[1]);
+                    filter.add(key);
+                    purchases.add(key);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Sequence ids stay far below 2^32, so both fit in one long key
+    private static boolean packable(long userId, long productId) {
+        return userId >= 0 && userId <= 0xFFFFFFFFL && productId >= 0 && productId <= 0xFFFFFFFFL;
+    }
+
+    private static long key(long userId, long productId) {
+        return userId << 32 | productId;
+    }
+}
@@ -1,6 +1,8 @@
 package com.ashu.E_Commerece.service;
 
+import com.ashu.E_Commerece.config.CacheConfig;
 import com.ashu.E_Commerece.dto.common.PagedResponse;
+import com.ashu.E_Commerece.dto.review.RatingSummaryResponse;
 import com.ashu.E_Commerece.dto.review.ReviewRequest;
 import com.ashu.E_Commerece.dto.review.ReviewResponse;
 import com.ashu.E_Commerece.exception.BadRequestException;
@@ -12,16 +14,29 @@ import com.ashu.E_Commerece.repository.ProductRepository;
 import com.ashu.E_Commerece.repository.ReviewRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -34,16 +49,31 @@ public class ReviewService {
 
     private final ReviewRepository reviewRepository;
     private final ProductRepository productRepository;
-    private final ProductService productService;
     private final UserService userService;
+    private final CacheManager cacheManager;
+    private final PurchaseIndexService purchaseIndexService;
+    private final DataMigrationService dataMigrationService;
+
+    // Products with committed rating changes not yet reflected in the caches
+    private final Set<Long> dirtyProducts = ConcurrentHashMap.newKeySet();
+
+    @Value("${rating-refresh.batch-size:500}")
+    private int refreshBatchSize;
 
     /**
      * Get reviews for a product.
      */
     @Transactional(readOnly = true)
-    public PagedResponse<ReviewResponse> getProductReviews(Long productId, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        Page<Review> reviews = reviewRepository.findByProductId(productId, pageable);
+    public PagedResponse<ReviewResponse> getProductReviews(Long productId, int page, int size,
+                                                           boolean verifiedOnly, boolean verifiedFirst) {
+        // Both variants are served by the (product_id, verified, created_at) index
+        Sort sort = verifiedFirst && !verifiedOnly
+                ? Sort.by(Sort.Order.desc("verified"), Sort.Order.desc("createdAt"))
+                : Sort.by("createdAt").descending();
+        Pageable pageable = PageRequest.of(page, size, sort);
+        Page<Review> reviews = verifiedOnly
+                ? reviewRepository.findByProductIdAndVerifiedTrue(productId, pageable)
+                : reviewRepository.findByProductId(productId, pageable);
         return mapToPagedResponse(reviews);
     }
 
@@ -79,13 +109,13 @@ public class ReviewService {
                 .rating(request.getRating())
                 .title(request.getTitle())
                 .comment(request.getComment())
+                .verified(purchaseIndexService.hasPurchased(user.getId(), productId))
                 .build();
 
         review = reviewRepository.save(review);
         log.info("Review created for product {} by user {}", product.getName(), user.getEmail());
 
-        // Update product rating
-        updateProductRating(productId);
+        applyRatingChange(productId, review.getRating(), 0);
 
         return mapToResponse(review);
     }
@@ -105,6 +135,7 @@ public class ReviewService {
             throw new ResourceNotFoundException("Review", "id", reviewId);
         }
 
+        int previousRating = review.getRating();
         review.setRating(request.getRating());
         review.setTitle(request.getTitle());
         review.setComment(request.getComment());
@@ -112,8 +143,9 @@ public class ReviewService {
         review = reviewRepository.save(review);
         log.info("Review updated: {}", reviewId);
 
-        // Update product rating
-        updateProductRating(review.getProduct().getId());
+        if (previousRating != review.getRating()) {
+            applyRatingChange(review.getProduct().getId(), review.getRating(), previousRating);
+        }
 
         return mapToResponse(review);
     }
@@ -138,19 +170,93 @@ public class ReviewService {
         reviewRepository.delete(review);
         log.info("Review deleted: {}", reviewId);
 
-        // Update product rating
-        updateProductRating(productId);
+        applyRatingChange(productId, 0, review.getRating());
+    }
+
+    /**
+     * Rating summary of a product, read from the denormalized aggregates and
+     * cached. Review writes refresh the cached entry, so the summary never
+     * aggregates over reviews.
+     */
+    @Cacheable(value = CacheConfig.RATING_SUMMARIES, key = "#productId")
+    @Transactional(readOnly = true)
+    public RatingSummaryResponse getRatingSummary(Long productId) {
+        return productRepository.findRatingAggregates(productId)
+                .map(this::mapToSummary)
+                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", productId));
+    }
+
+    /**
+     * Refreshes cached views of products whose rating changed since the last
+     * window: one aggregate read per batch, the rating summary replaced and
+     * only those product entries evicted. A burst of reviews on one product
+     * costs a single refresh; ids marked while this runs go to the next window.
+     */
+    @Scheduled(fixedDelayString = "${rating-refresh.window-ms:2000}")
+    public void refreshDirtyRatings() {
+        if (dirtyProducts.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>();
+        for (Iterator<Long> it = dirtyProducts.iterator(); it.hasNext(); ) {
+            ids.add(it.next());
+            it.remove();
+        }
+
+        Cache products = cacheManager.getCache("products");
+        Cache summaries = cacheManager.getCache(CacheConfig.RATING_SUMMARIES);
+        boolean featuredChanged = false;
+        for (int from = 0; from < ids.size(); from += refreshBatchSize) {
+            List<Long> batch = ids.subList(from, Math.min(from + refreshBatchSize, ids.size()));
+            for (ProductRepository.RatingAggregates aggregates : productRepository.findRatingAggregatesByIdIn(batch)) {
+                summaries.put(aggregates.getId(), mapToSummary(aggregates));
+                products.evict(aggregates.getId());
+                featuredChanged |= aggregates.getFeatured();
+            }
+        }
+        if (featuredChanged) {
+            products.evict("featured");
+        }
+        log.debug("Refreshed ratings of {} products", ids.size());
     }
 
-    private void updateProductRating(Long productId) {
-        Double avgRating = reviewRepository.calculateAverageRatingByProductId(productId);
-        long reviewCount = reviewRepository.countByProductId(productId);
+    /**
+     * One-time rebuild of the rating aggregates of products whose counts or
+     * sums disagree with their reviews; from then on the delta updates in
+     * review writes keep them current.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillRatingAggregates() {
+        dataMigrationService.runOnce("products.rating-aggregates-backfill", productRepository::backfillRatingAggregates);
+    }
 
-        BigDecimal rating = avgRating != null 
-            ? BigDecimal.valueOf(avgRating).setScale(2, RoundingMode.HALF_UP)
-            : BigDecimal.ZERO;
+    /**
+     * Applies the rating delta in the review's transaction and, once it
+     * commits, marks the product for the next cache refresh window.
+     */
+    private void applyRatingChange(Long productId, int added, int removed) {
+        productRepository.applyRatingChange(productId, added, removed);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                dirtyProducts.add(productId);
+            }
+        });
+    }
 
-        productService.updateProductRating(productId, rating, (int) reviewCount);
+    private RatingSummaryResponse mapToSummary(ProductRepository.RatingAggregates aggregates) {
+        Map<Integer, Integer> distribution = new LinkedHashMap<>();
+        distribution.put(5, aggregates.getFiveStarCount());
+        distribution.put(4, aggregates.getFourStarCount());
+        distribution.put(3, aggregates.getThreeStarCount());
+        distribution.put(2, aggregates.getTwoStarCount());
+        distribution.put(1, aggregates.getOneStarCount());
+        return RatingSummaryResponse.builder()
+                .productId(aggregates.getId())
+                .averageRating(aggregates.getAverageRating())
+                .reviewCount(aggregates.getReviewCount())
+                .distribution(distribution)
+                .build();
     }
 
     private ReviewResponse mapToResponse(Review review) {
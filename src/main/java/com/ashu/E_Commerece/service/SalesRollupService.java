@@ -0,0 +1,166 @@
+package com.ashu.E_Commerece.service;
+
+import com.ashu.E_Commerece.exception.BadRequestException;
+import com.ashu.E_Commerece.model.Order;
+import com.ashu.E_Commerece.repository.ArchivedOrderRepository;
+import com.ashu.E_Commerece.repository.OrderRepository;
+import com.ashu.E_Commerece.repository.SalesDailyCategoryRepository;
+import com.ashu.E_Commerece.repository.SalesDailyRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Maintains the sales_daily and sales_daily_category rollups. Order writes
+ * apply their contribution as delta UPDATEs inside the order's transaction,
+ * so rollups commit or roll back with the order. Orders are attributed to
+ * their creation day and each line to the category it was sold under;
+ * cancellation and refund subtract from that same day and category. The
+ * backfill rebuilds any range from hot and archived orders and also runs
+ * nightly over the last few days to heal drift. Placed orders are also fed
+ * to {@link SalesSketchService}, whose sketches are rebuilt with each chunk.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SalesRollupService {
+
+    private final SalesDailyRepository salesDailyRepository;
+    private final SalesDailyCategoryRepository salesDailyCategoryRepository;
+    private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final SalesSketchService salesSketchService;
+    private final DataMigrationService dataMigrationService;
+    private final PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private TransactionTemplate newTransaction;
+
+    @Value("${sales-rollup.rebuild-days:2}")
+    private int rebuildDays;
+
+    @Value("${sales-rollup.backfill-chunk-days:31}")
+    private int backfillChunkDays;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Adds a newly placed order. Must run in the order's transaction.
+     */
+    public void orderPlaced(Order order) {
+        apply(order, 1, 1);
+        salesSketchService.orderPlaced(order);
+    }
+
+    /**
+     * Removes a cancelled or refunded order from revenue. Must run in the
+     * transaction that changed its status.
+     */
+    public void orderReversed(Order order) {
+        apply(order, 0, -1);
+    }
+
+    private void apply(Order order, long orders, int sign) {
+        LocalDate day = order.getCreatedAt().toLocalDate();
+        BigDecimal factor = BigDecimal.valueOf(sign);
+
+        // Category rows first and the shared day row last, so the hottest row is locked for the shortest time
+        for (Object[] row : orderRepository.sumItemsByCategory(order.getId())) {
+            Long categoryId = ((Number) row[0]).longValue();
+            BigDecimal revenue = ((BigDecimal) row[1]).multiply(factor);
+            long units = ((Number) row[2]).longValue() * sign;
+            if (salesDailyCategoryRepository.increment(day, categoryId, revenue, units) == 0) {
+                createRow(() -> salesDailyCategoryRepository.insertIfAbsent(day, categoryId));
+                salesDailyCategoryRepository.increment(day, categoryId, revenue, units);
+            }
+        }
+
+        BigDecimal revenue = order.getTotalAmount().multiply(factor);
+        if (salesDailyRepository.increment(day, orders, sign, revenue) == 0) {
+            createRow(() -> salesDailyRepository.insertIfAbsent(day));
+            salesDailyRepository.increment(day, orders, sign, revenue);
+        }
+    }
+
+    // First write of a day creates its row in a separate transaction; a concurrent creator winning is fine
+    private void createRow(Runnable insert) {
+        try {
+            newTransaction.executeWithoutResult(status -> insert.run());
+        } catch (DataIntegrityViolationException ex) {
+            log.debug("Rollup row created concurrently");
+        }
+    }
+
+    /**
+     * Recomputes the rollups for [from, to] from hot and archived orders, one
+     * short transaction per chunk of days.
+     *
+     * @return number of days rebuilt
+     */
+    public long backfill(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new BadRequestException("'from' must not be after 'to'");
+        }
+        long days = 0;
+        for (LocalDate start = from; !start.isAfter(to); start = start.plusDays(backfillChunkDays)) {
+            LocalDate chunkStart = start;
+            LocalDate chunkEnd = start.plusDays(backfillChunkDays - 1L);
+            LocalDate end = chunkEnd.isAfter(to) ? to : chunkEnd;
+            transactionTemplate.executeWithoutResult(status -> {
+                salesDailyCategoryRepository.deleteBetween(chunkStart, end);
+                salesDailyRepository.deleteBetween(chunkStart, end);
+                salesDailyRepository.rebuildBetween(chunkStart.atStartOfDay(), end.plusDays(1).atStartOfDay());
+                salesDailyCategoryRepository.rebuildBetween(chunkStart.atStartOfDay(), end.plusDays(1).atStartOfDay());
+            });
+            salesSketchService.rebuild(chunkStart, end);
+            days += end.toEpochDay() - chunkStart.toEpochDay() + 1;
+        }
+        log.info("Rebuilt sales rollups from {} to {}", from, to);
+        return days;
+    }
+
+    @Scheduled(cron = "${sales-rollup.rebuild-cron:0 45 3 * * *}")
+    public void scheduledRebuild() {
+        LocalDate today = LocalDate.now();
+        backfill(today.minusDays(rebuildDays), today);
+    }
+
+    // Order lines from before lines recorded their category are pinned to their product's current one, once
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillLineCategories() {
+        dataMigrationService.runOnce("order-items.category-backfill", () ->
+                orderRepository.backfillItemCategories() + archivedOrderRepository.backfillItemCategories());
+    }
+
+    // Populates empty rollups (first start on an existing database) from the full order history
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialBackfill() {
+        if (salesDailyRepository.count() > 0) {
+            return;
+        }
+        Stream.of(orderRepository.findEarliestCreatedAt(), archivedOrderRepository.findEarliestCreatedAt())
+                .filter(Objects::nonNull)
+                .min(LocalDateTime::compareTo)
+                .ifPresent(earliest -> backfill(earliest.toLocalDate(), LocalDate.now()));
+    }
+}
@@ -0,0 +1,241 @@
+package com.ashu.E_Commerece.service;
+
+import com.ashu.E_Commerece.model.Order;
+import com.ashu.E_Commerece.model.SalesSketch;
+import com.ashu.E_Commerece.repository.OrderRepository;
+import com.ashu.E_Commerece.repository.SalesSketchRepository;
+import com.ashu.E_Commerece.util.HyperLogLog;
+import com.ashu.E_Commerece.util.QuantileSketch;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Approximate distinct buyers and order-value percentiles for any date range.
+ * Each day and month keeps a HyperLogLog of buyer ids and a quantile sketch
+ * of order totals over all placed orders. Committed orders are added to
+ * in-memory per-day sketches that are merged into the persisted rows
+ * periodically; a range query merges at most a few dozen rows (whole months
+ * plus the ragged days at either end) and never touches orders.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SalesSketchService {
+
+    public record Summary(long uniqueBuyers, BigDecimal p50, BigDecimal p90, BigDecimal p99) {
+    }
+
+    private final SalesSketchRepository salesSketchRepository;
+    private final OrderRepository orderRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    // Committed orders not yet merged into sales_sketches, per creation day
+    private final Map<LocalDate, Sketches> pending = new ConcurrentHashMap<>();
+
+    @Value("${sales-sketch.accuracy:0.01}")
+    private double accuracy;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Records a placed order once its transaction commits.
+     */
+    public void orderPlaced(Order order) {
+        LocalDate day = order.getCreatedAt().toLocalDate();
+        long userId = order.getUser().getId();
+        double total = order.getTotalAmount().doubleValue();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                // compute() is atomic with the flush's remove(), so no add lands on a drained sketch
+                pending.compute(day, (d, sketches) -> {
+                    Sketches target = sketches != null ? sketches : new Sketches(accuracy);
+                    target.add(userId, total);
+                    return target;
+                });
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${sales-sketch.flush-interval-ms:10000}")
+    public void flush() {
+        for (LocalDate day : List.copyOf(pending.keySet())) {
+            Sketches delta = pending.remove(day);
+            if (delta == null) {
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    mergeInto(SalesSketch.Period.DAY, day, delta);
+                    mergeInto(SalesSketch.Period.MONTH, day.withDayOfMonth(1), delta);
+                });
+            } catch (DataAccessException ex) {
+                // e.g. another instance created the row first; retry on the next flush
+                pending.merge(day, delta, Sketches::mergeFrom);
+                log.warn("Sales sketch flush for {} failed, will retry: {}", day, ex.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Merges the sketches covering [from, to], including orders not yet flushed.
+     */
+    public Summary summarize(LocalDate from, LocalDate to) {
+        Sketches total = new Sketches(accuracy);
+
+        // Whole months come from month rows, the partial months at either end from day rows
+        LocalDate firstFullMonth = from.getDayOfMonth() == 1 ? from : from.plusMonths(1).withDayOfMonth(1);
+        LocalDate lastFullMonthEnd = to.equals(YearMonth.from(to).atEndOfMonth()) ? to : to.withDayOfMonth(1).minusDays(1);
+        if (firstFullMonth.isAfter(lastFullMonthEnd)) {
+            mergeRows(total, SalesSketch.Period.DAY, from, to);
+        } else {
+            if (from.isBefore(firstFullMonth)) {
+                mergeRows(total, SalesSketch.Period.DAY, from, firstFullMonth.minusDays(1));
+            }
+            mergeRows(total, SalesSketch.Period.MONTH, firstFullMonth, lastFullMonthEnd.withDayOfMonth(1));
+            if (lastFullMonthEnd.isBefore(to)) {
+                mergeRows(total, SalesSketch.Period.DAY, lastFullMonthEnd.plusDays(1), to);
+            }
+        }
+
+        pending.forEach((day, sketches) -> {
+            if (!day.isBefore(from) && !day.isAfter(to)) {
+                total.mergeFrom(sketches);
+            }
+        });
+
+        return new Summary(total.buyers.estimate(), quantile(total, 0.5), quantile(total, 0.9), quantile(total, 0.99));
+    }
+
+    /**
+     * Rebuilds the day sketches of [from, to] from hot and archived orders and
+     * re-merges the month sketches those days belong to.
+     */
+    public void rebuild(LocalDate from, LocalDate to) {
+        // The rebuild reads the committed orders these describe
+        pending.keySet().removeIf(day -> !day.isBefore(from) && !day.isAfter(to));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<LocalDate, Sketches> days = new HashMap<>();
+            try (Stream<Object[]> rows = orderRepository.streamOrderValues(from.atStartOfDay(), to.plusDays(1).atStartOfDay())) {
+                rows.forEach(row -> days.computeIfAbsent(toLocalDateTime(row[0]).toLocalDate(), d -> new Sketches(accuracy))
+                        .add(((Number) row[1]).longValue(), ((Number) row[2]).doubleValue()));
+            }
+
+            salesSketchRepository.deleteBetween(SalesSketch.Period.DAY, from, to);
+            days.forEach((day, sketches) -> salesSketchRepository.save(sketches.toEntity(SalesSketch.Period.DAY, day)));
+            salesSketchRepository.flush();
+
+            for (YearMonth month = YearMonth.from(from); !month.isAfter(YearMonth.from(to)); month = month.plusMonths(1)) {
+                Sketches monthly = new Sketches(accuracy);
+                mergeRows(monthly, SalesSketch.Period.DAY, month.atDay(1), month.atEndOfMonth());
+                salesSketchRepository.deleteBetween(SalesSketch.Period.MONTH, month.atDay(1), month.atDay(1));
+                if (monthly.values.getCount() > 0) {
+                    salesSketchRepository.save(monthly.toEntity(SalesSketch.Period.MONTH, month.atDay(1)));
+                }
+            }
+        });
+    }
+
+    private void mergeInto(SalesSketch.Period period, LocalDate start, Sketches delta) {
+        SalesSketch row = salesSketchRepository.findForUpdate(period, start).orElse(null);
+        if (row == null) {
+            salesSketchRepository.save(delta.toEntity(period, start));
+            return;
+        }
+        Sketches merged = Sketches.of(row);
+        merged.mergeFrom(delta);
+        row.setBuyers(merged.buyers.toBytes());
+        row.setOrderValues(merged.values.toBytes());
+    }
+
+    private void mergeRows(Sketches target, SalesSketch.Period period, LocalDate from, LocalDate to) {
+        for (SalesSketch row : salesSketchRepository.findByPeriodAndPeriodStartBetween(period, from, to)) {
+            target.mergeFrom(Sketches.of(row));
+        }
+    }
+
+    private BigDecimal quantile(Sketches sketches, double q) {
+        return BigDecimal.valueOf(sketches.values.quantile(q)).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
+    }
+
+    /**
+     * Buyer and order-value sketches of one period, guarded by its own monitor.
+     */
+    private static final class Sketches {
+
+        private final HyperLogLog buyers;
+        private final QuantileSketch values;
+
+        Sketches(double accuracy) {
+            this(new HyperLogLog(), new QuantileSketch(accuracy));
+        }
+
+        private Sketches(HyperLogLog buyers, QuantileSketch values) {
+            this.buyers = buyers;
+            this.values = values;
+        }
+
+        static Sketches of(SalesSketch row) {
+            return new Sketches(HyperLogLog.fromBytes(row.getBuyers()), QuantileSketch.fromBytes(row.getOrderValues()));
+        }
+
+        synchronized void add(long userId, double total) {
+            buyers.add(userId);
+            values.add(total);
+        }
+
+        synchronized Sketches mergeFrom(Sketches other) {
+            synchronized (other) {
+                buyers.merge(other.buyers);
+                values.merge(other.values);
+            }
+            return this;
+        }
+
+        synchronized SalesSketch toEntity(SalesSketch.Period period, LocalDate start) {
+            return SalesSketch.builder()
+                    .period(period)
+                    .periodStart(start)
+                    .buyers(buyers.toBytes())
+                    .orderValues(values.toBytes())
+                    .build();
+        }
+    }
+}
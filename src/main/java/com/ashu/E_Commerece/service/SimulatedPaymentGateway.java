@@ -0,0 +1,103 @@
+package com.ashu.E_Commerece.service;
+
+import com.ashu.E_Commerece.dto.payment.GatewayChargeRequest;
+import com.ashu.E_Commerece.dto.payment.PaymentCallbackRequest;
+import com.ashu.E_Commerece.model.PaymentStatus;
+import com.ashu.E_Commerece.util.PaymentCallbackSigner;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Local stand-in for a payment provider, for development and load testing.
+ * Each charge waits a random latency, then reports success or a decline to
+ * the callback endpoint over HTTP, exactly like a real provider would.
+ * Latency, decline rate and outright submission errors are configurable.
+ */
+@Service
+@ConditionalOnProperty(name = "payment.gateway.mode", havingValue = "simulated", matchIfMissing = true)
+@Slf4j
+public class SimulatedPaymentGateway implements PaymentGateway {
+
+    private final RestClient restClient;
+    private final ObjectMapper objectMapper;
+    private final PaymentCallbackSigner signer;
+
+    @Value("${payment.gateway.callback-url}")
+    private String callbackUrl;
+
+    @Value("${payment.gateway.simulated.min-latency-ms:100}")
+    private long minLatencyMs;
+
+    @Value("${payment.gateway.simulated.max-latency-ms:500}")
+    private long maxLatencyMs;
+
+    // Share of accepted charges that come back declined
+    @Value("${payment.gateway.simulated.failure-rate:0.1}")
+    private double failureRate;
+
+    // Share of submissions rejected outright (provider unavailable)
+    @Value("${payment.gateway.simulated.error-rate:0.0}")
+    private double errorRate;
+
+    public SimulatedPaymentGateway(RestClient.Builder restClientBuilder, ObjectMapper objectMapper,
+                                   PaymentCallbackSigner signer) {
+        this.restClient = restClientBuilder.build();
+        this.objectMapper = objectMapper;
+        this.signer = signer;
+    }
+
+    @Override
+    public void submit(GatewayChargeRequest charge) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() < errorRate) {
+            throw new IllegalStateException("Simulated gateway unavailable");
+        }
+
+        sleep(maxLatencyMs > minLatencyMs ? random.nextLong(minLatencyMs, maxLatencyMs + 1) : minLatencyMs);
+
+        boolean declined = random.nextDouble() < failureRate;
+        PaymentCallbackRequest callback = PaymentCallbackRequest.builder()
+                .paymentId(charge.getPaymentId())
+                .status(declined ? PaymentStatus.FAILED : PaymentStatus.SUCCESS)
+                .gatewayReference("SIM-" + UUID.randomUUID())
+                .failureReason(declined ? "Card declined (simulated)" : null)
+                .build();
+
+        String body = toJson(callback);
+        restClient.post()
+                .uri(callbackUrl)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(PaymentCallbackSigner.HEADER, signer.sign(body))
+                .body(body)
+                .retrieve()
+                .toBodilessEntity();
+
+        log.debug("Simulated gateway reported {} for payment {}", callback.getStatus(), charge.getPaymentId());
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while simulating gateway latency", ex);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize payment callback", ex);
+        }
+    }
+}
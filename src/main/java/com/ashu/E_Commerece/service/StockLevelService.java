@@ -0,0 +1,254 @@
+package com.ashu.E_Commerece.service;
+
+import com.ashu.E_Commerece.dto.analytics.ProductAnalytics;
+import com.ashu.E_Commerece.dto.analytics.StockAlertBatch;
+import com.ashu.E_Commerece.model.Product;
+import com.ashu.E_Commerece.repository.ProductRepository;
+import com.ashu.E_Commerece.util.SseBroadcaster;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * In-memory index of active products by stock level. Every stock mutation
+ * updates it after commit in O(log n), so low-stock and out-of-stock counts
+ * are read in O(1) and the low-stock list as a range of the ordered index,
+ * without loading product entities. Products crossing the low-stock or
+ * out-of-stock threshold are collected and pushed to admins as one batch per
+ * alert interval over Server-Sent Events. The index is periodically re-read
+ * from the database to heal updates applied out of order or made outside the
+ * application.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockLevelService {
+
+    private record Level(long productId, String name, int stock) {
+    }
+
+    private static final Comparator<Level> BY_STOCK =
+            Comparator.comparingInt(Level::stock).thenComparingLong(Level::productId);
+
+    private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper;
+
+    // Index state, guarded by this
+    private final Map<Long, Level> levels = new HashMap<>();
+    private final TreeSet<Level> byStock = new TreeSet<>(BY_STOCK);
+    private long lowStockCount;
+    private long outOfStockCount;
+    private final Map<Long, StockAlertBatch.StockAlert> pendingAlerts = new LinkedHashMap<>();
+    private boolean loaded;
+    private long sequence;
+
+    private SseBroadcaster broadcaster;
+
+    @Value("${stock-alerts.low-stock-threshold:10}")
+    private int lowStockThreshold;
+
+    @Value("${stock-alerts.subscriber-queue-size:32}")
+    private int subscriberQueueSize;
+
+    @Value("${stock-alerts.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+
+    @PostConstruct
+    void init() {
+        broadcaster = new SseBroadcaster("stock-alerts", subscriberQueueSize, emitterTimeoutMs);
+    }
+
+    /**
+     * Records a product's stock, activity or name once its transaction commits.
+     */
+    public void stockChanged(Product product) {
+        long id = product.getId();
+        String name = product.getName();
+        int stock = product.getStockQuantity();
+        boolean active = product.isActive();
+        Runnable apply = () -> {
+            synchronized (this) {
+                apply(id, name, stock, active);
+            }
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply.run();
+            }
+        });
+    }
+
+    public synchronized long lowStockCount() {
+        return lowStockCount;
+    }
+
+    public synchronized long outOfStockCount() {
+        return outOfStockCount;
+    }
+
+    /**
+     * Active products below the low-stock threshold, lowest stock first.
+     */
+    public synchronized List<ProductAnalytics.LowStockProduct> lowStockProducts() {
+        List<ProductAnalytics.LowStockProduct> result = new ArrayList<>();
+        for (Level level : byStock.headSet(new Level(Long.MIN_VALUE, null, lowStockThreshold), false)) {
+            result.add(ProductAnalytics.LowStockProduct.builder()
+                    .id(level.productId()).name(level.name()).stockQuantity(level.stock()).build());
+        }
+        return result;
+    }
+
+    /**
+     * Opens an alert stream that starts with the products currently low or out of stock.
+     */
+    public synchronized SseEmitter subscribe() {
+        List<StockAlertBatch.StockAlert> current = new ArrayList<>();
+        for (Level level : byStock.headSet(new Level(Long.MIN_VALUE, null, lowStockThreshold), false)) {
+            current.add(alert(level, null));
+        }
+        // Under the same lock as flush(), so the snapshot always comes first
+        return broadcaster.subscribe(event("snapshot", current));
+    }
+
+    @Scheduled(fixedDelayString = "${stock-alerts.flush-interval-ms:30000}")
+    public synchronized void flush() {
+        if (pendingAlerts.isEmpty()) {
+            broadcaster.heartbeat();
+            return;
+        }
+        List<StockAlertBatch.StockAlert> alerts = new ArrayList<>(pendingAlerts.values());
+        pendingAlerts.clear();
+        log.warn("{} products crossed a stock threshold ({} low, {} out of stock)",
+                alerts.size(), lowStockCount, outOfStockCount);
+        broadcaster.broadcast(event("alerts", alerts));
+    }
+
+    /**
+     * Reloads the index from the database. Threshold crossings found by a
+     * periodic reload are alerted like any other; the first load is not.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${stock-alerts.resync-interval-ms:600000}",
+            fixedDelayString = "${stock-alerts.resync-interval-ms:600000}")
+    public void resync() {
+        List<Object[]> rows = productRepository.findStockLevels();
+        synchronized (this) {
+            Set<Long> seen = new HashSet<>();
+            for (Object[] row : rows) {
+                long id = ((Number) row[0]).longValue();
+                seen.add(id);
+                apply(id, (String) row[1], ((Number) row[2]).intValue(), (Boolean) row[3]);
+            }
+            for (Long id : List.copyOf(levels.keySet())) {
+                if (!seen.contains(id)) {
+                    apply(id, null, 0, false);
+                }
+            }
+            if (!loaded) {
+                log.info("Stock level index loaded: {} active products, {} low, {} out of stock",
+                        levels.size(), lowStockCount, outOfStockCount);
+                loaded = true;
+            }
+        }
+    }
+
+    // ===== Index (callers hold the monitor) =====
+
+    private void apply(long id, String name, int stock, boolean active) {
+        Level previous = levels.remove(id);
+        if (previous != null) {
+            byStock.remove(previous);
+            count(previous, -1);
+        }
+        Level current = active ? new Level(id, name, stock) : null;
+        if (current != null) {
+            levels.put(id, current);
+            byStock.add(current);
+            count(current, 1);
+        }
+        // New and deactivated products are not alerted, only moves between thresholds
+        if (loaded && previous != null && current != null) {
+            recordCrossing(previous, current);
+        }
+    }
+
+    private void count(Level level, int delta) {
+        if (level.stock() < lowStockThreshold) {
+            lowStockCount += delta;
+        }
+        if (level.stock() < 1) {
+            outOfStockCount += delta;
+        }
+    }
+
+    // Coalesces moves within one interval, so a product that dips and recovers is not alerted
+    private void recordCrossing(Level previous, Level current) {
+        StockAlertBatch.Level to = band(current.stock());
+        StockAlertBatch.StockAlert pending = pendingAlerts.get(current.productId());
+        StockAlertBatch.Level from = pending != null ? pending.getPreviousLevel() : band(previous.stock());
+        if (from == to) {
+            pendingAlerts.remove(current.productId());
+        } else {
+            pendingAlerts.put(current.productId(), alert(current, from));
+        }
+    }
+
+    private StockAlertBatch.StockAlert alert(Level level, StockAlertBatch.Level previousLevel) {
+        return StockAlertBatch.StockAlert.builder()
+                .productId(level.productId())
+                .name(level.name())
+                .stockQuantity(level.stock())
+                .previousLevel(previousLevel)
+                .level(band(level.stock()))
+                .build();
+    }
+
+    private StockAlertBatch.Level band(int stock) {
+        if (stock < 1) {
+            return StockAlertBatch.Level.OUT_OF_STOCK;
+        }
+        return stock < lowStockThreshold ? StockAlertBatch.Level.LOW_STOCK : StockAlertBatch.Level.IN_STOCK;
+    }
+
+    private Set<ResponseBodyEmitter.DataWithMediaType> event(String name, List<StockAlertBatch.StockAlert> alerts) {
+        StockAlertBatch batch = StockAlertBatch.builder()
+                .sequence(++sequence)
+                .createdAt(LocalDateTime.now().toString())
+                .lowStockProducts(lowStockCount)
+                .outOfStockProducts(outOfStockCount)
+                .alerts(alerts)
+                .build();
+        try {
+            return SseBroadcaster.event(name, batch.getSequence(), objectMapper.writeValueAsString(batch));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize stock alerts", ex);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.ashu.E_Commerece.service;
+
+import com.ashu.E_Commerece.model.User;
+import com.ashu.E_Commerece.repository.UserRepository;
+import com.ashu.E_Commerece.repository.UserSignupDailyRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Maintains the user_signups_daily rollup and users.last_active_at, the
+ * inputs of user analytics. Registrations increment their signup day inside
+ * the registering transaction; logins and orders stamp the user's activity at
+ * most once per resolution window, so hot users do not rewrite their row on
+ * every request. The rollup is rebuilt from users on first start and nightly.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserRollupService {
+
+    private final UserSignupDailyRepository userSignupDailyRepository;
+    private final UserRepository userRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private TransactionTemplate newTransaction;
+
+    @Value("${user-analytics.activity-resolution-minutes:15}")
+    private long activityResolutionMinutes;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Counts a newly registered user. Must run in the registering transaction.
+     */
+    public void userRegistered(User user) {
+        LocalDate day = user.getCreatedAt().toLocalDate();
+        if (userSignupDailyRepository.increment(day, user.getRole()) == 0) {
+            // First signup of the day creates the row; a concurrent creator winning is fine
+            try {
+                newTransaction.executeWithoutResult(status ->
+                        userSignupDailyRepository.insertIfAbsent(day, user.getRole().name()));
+            } catch (DataIntegrityViolationException ex) {
+                log.debug("Signup rollup row created concurrently");
+            }
+            userSignupDailyRepository.increment(day, user.getRole());
+        }
+    }
+
+    /**
+     * Marks the user active now (login or order).
+     */
+    @Transactional
+    public void recordActivity(Long userId) {
+        LocalDateTime now = LocalDateTime.now();
+        userRepository.touchLastActive(userId, now, now.minusMinutes(activityResolutionMinutes));
+    }
+
+    /**
+     * Recomputes the signup rollup from the users table in one transaction.
+     */
+    public void rebuild() {
+        int rows = transactionTemplate.execute(status -> {
+            userSignupDailyRepository.deleteAllRows();
+            return userSignupDailyRepository.rebuild();
+        });
+        log.info("Rebuilt user signup rollup: {} rows", rows);
+    }
+
+    @Scheduled(cron = "${user-analytics.rebuild-cron:0 50 3 * * *}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    // Populates an empty rollup (first start on an existing database) and seeds activity from order history
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialBackfill() {
+        if (userSignupDailyRepository.count() > 0) {
+            return;
+        }
+        rebuild();
+        transactionTemplate.executeWithoutResult(status -> userRepository.backfillLastActive());
+        log.info("Seeded user activity from order history");
+    }
+}
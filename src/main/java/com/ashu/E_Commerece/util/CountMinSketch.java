@@ -0,0 +1,64 @@
+package com.ashu.E_Commerece.util;
+
+import java.util.Arrays;
+
+/**
+ * Count-Min sketch of weighted counts per long key: {@code depth} rows of
+ * {@code width} counters. An estimate never undercounts and overcounts by at
+ * most about e/width of the total weight with probability 1 - e^-depth.
+ * Sketches of equal shape merge by adding counters. Not thread-safe; callers
+ * synchronize.
+ */
+public class CountMinSketch {
+
+    private final int depth;
+    private final int mask;
+    private final long[][] counters;
+
+    public CountMinSketch(int depth, int width) {
+        if (depth < 1 || width < 1) {
+            throw new IllegalArgumentException("Depth and width must be positive");
+        }
+        this.depth = depth;
+        int capacity = Integer.highestOneBit(Math.max(16, width * 2 - 1));
+        this.mask = capacity - 1;
+        this.counters = new long[depth][capacity];
+    }
+
+    public void add(long key, long weight) {
+        long h1 = LongHashSet.mix(key);
+        long h2 = LongHashSet.mix(h1) | 1;
+        for (int row = 0; row < depth; row++) {
+            counters[row][(int) ((h1 + row * h2) >>> 32) & mask] += weight;
+        }
+    }
+
+    public long estimate(long key) {
+        long h1 = LongHashSet.mix(key);
+        long h2 = LongHashSet.mix(h1) | 1;
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counters[row][(int) ((h1 + row * h2) >>> 32) & mask]);
+        }
+        return min;
+    }
+
+    public void merge(CountMinSketch other) {
+        if (other.depth != depth || other.mask != mask) {
+            throw new IllegalArgumentException("Count-Min sketches must have the same shape to merge");
+        }
+        for (int row = 0; row < depth; row++) {
+            long[] target = counters[row];
+            long[] source = other.counters[row];
+            for (int i = 0; i < target.length; i++) {
+                target[i] += source[i];
+            }
+        }
+    }
+
+    public void clear() {
+        for (long[] row : counters) {
+            Arrays.fill(row, 0);
+        }
+    }
+}
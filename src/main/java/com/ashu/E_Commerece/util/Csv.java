@@ -0,0 +1,112 @@
+package com.ashu.E_Commerece.util;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RFC 4180 CSV fields: quoting for writers and a streaming record reader
+ * that honours quoted separators, doubled quotes and line breaks inside
+ * quoted fields.
+ */
+public final class Csv {
+
+    private Csv() {
+    }
+
+    /**
+     * Quotes the value if it contains a separator, quote or line break.
+     */
+    public static String field(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
+
+    /**
+     * Reads one record at a time, so files of any size stream in constant memory.
+     */
+    public static final class Reader implements Closeable {
+
+        private final BufferedReader in;
+        private long linesRead;
+        private long lineNumber;
+
+        public Reader(BufferedReader in) {
+            this.in = in;
+        }
+
+        /**
+         * Fields of the next record, or null at the end of the input. A blank
+         * line is a record with one empty field.
+         */
+        public List<String> readRecord() throws IOException {
+            String line = in.readLine();
+            if (line == null) {
+                return null;
+            }
+            lineNumber = ++linesRead;
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            int i = 0;
+            while (true) {
+                if (i == line.length()) {
+                    if (!quoted) {
+                        break;
+                    }
+                    // A quoted field continues on the next line; an unterminated one ends with the input
+                    String next = in.readLine();
+                    if (next == null) {
+                        break;
+                    }
+                    linesRead++;
+                    field.append('\n');
+                    line = next;
+                    i = 0;
+                    continue;
+                }
+                char c = line.charAt(i++);
+                if (quoted) {
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i < line.length() && line.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '"' && field.toString().isBlank()) {
+                    field.setLength(0);
+                    quoted = true;
+                } else {
+                    field.append(c);
+                }
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+
+        /**
+         * Line on which the last record read started, counting from 1.
+         */
+        public long getLineNumber() {
+            return lineNumber;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
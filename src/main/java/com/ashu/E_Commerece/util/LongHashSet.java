@@ -0,0 +1,86 @@
+package com.ashu.E_Commerece.util;
+
+/**
+ * Open-addressing hash set of primitive longs (linear probing, 50% max load).
+ * About 16 bytes per entry instead of ~60 for a boxed {@code HashSet<Long>}.
+ * Not thread-safe; callers synchronize.
+ */
+public class LongHashSet {
+
+    // 0 marks an empty slot, so the key 0 is tracked separately
+    private long[] table;
+    private boolean containsZero;
+    private int size;
+
+    public LongHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1;
+        table = new long[capacity];
+    }
+
+    public boolean add(long key) {
+        if (key == 0) {
+            boolean added = !containsZero;
+            containsZero = true;
+            size += added ? 1 : 0;
+            return added;
+        }
+        if ((size + 1) * 2L > table.length) {
+            resize();
+        }
+        if (!insert(table, key)) {
+            return false;
+        }
+        size++;
+        return true;
+    }
+
+    public boolean contains(long key) {
+        if (key == 0) {
+            return containsZero;
+        }
+        int mask = table.length - 1;
+        for (int i = (int) mix(key) & mask; table[i] != 0; i = (i + 1) & mask) {
+            if (table[i] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static boolean insert(long[] slots, long key) {
+        int mask = slots.length - 1;
+        int i = (int) mix(key) & mask;
+        while (slots[i] != 0) {
+            if (slots[i] == key) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        slots[i] = key;
+        return true;
+    }
+
+    private void resize() {
+        long[] larger = new long[table.length * 2];
+        for (long key : table) {
+            if (key != 0) {
+                insert(larger, key);
+            }
+        }
+        table = larger;
+    }
+
+    // MurmurHash3 finalizer: spreads sequential ids across the table
+    static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+}
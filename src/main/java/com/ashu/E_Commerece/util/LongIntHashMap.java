@@ -0,0 +1,88 @@
+package com.ashu.E_Commerece.util;
+
+/**
+ * Open-addressing map from primitive long keys to non-negative int values
+ * (linear probing, 50% max load), e.g. entity id to row number. Avoids boxing
+ * two objects per entry. Not thread-safe; callers synchronize.
+ */
+public class LongIntHashMap {
+
+    public static final int MISSING = -1;
+
+    // 0 marks an empty key slot, so the key 0 is tracked separately
+    private long[] keys;
+    private int[] values;
+    private int zeroValue = MISSING;
+    private int size;
+
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+    }
+
+    public void put(long key, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Values must be non-negative");
+        }
+        if (key == 0) {
+            size += zeroValue == MISSING ? 1 : 0;
+            zeroValue = value;
+            return;
+        }
+        if ((size + 1) * 2L > keys.length) {
+            resize();
+        }
+        if (insert(keys, values, key, value)) {
+            size++;
+        }
+    }
+
+    /**
+     * Value for the key, or {@link #MISSING}.
+     */
+    public int get(long key) {
+        if (key == 0) {
+            return zeroValue;
+        }
+        int mask = keys.length - 1;
+        for (int i = (int) LongHashSet.mix(key) & mask; keys[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return values[i];
+            }
+        }
+        return MISSING;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Returns true when the key was new
+    private static boolean insert(long[] keySlots, int[] valueSlots, long key, int value) {
+        int mask = keySlots.length - 1;
+        int i = (int) LongHashSet.mix(key) & mask;
+        while (keySlots[i] != 0) {
+            if (keySlots[i] == key) {
+                valueSlots[i] = value;
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        keySlots[i] = key;
+        valueSlots[i] = value;
+        return true;
+    }
+
+    private void resize() {
+        long[] largerKeys = new long[keys.length * 2];
+        int[] largerValues = new int[keys.length * 2];
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                insert(largerKeys, largerValues, keys[i], values[i]);
+            }
+        }
+        keys = largerKeys;
+        values = largerValues;
+    }
+}
@@ -0,0 +1,44 @@
+package com.ashu.E_Commerece.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+/**
+ * HMAC-SHA256 signatures for gateway callbacks. The callback endpoint is
+ * public, so the shared secret is what proves a notification came from the
+ * gateway.
+ */
+@Component
+public class PaymentCallbackSigner {
+
+    public static final String HEADER = "X-Payment-Signature";
+
+    @Value("${payment.gateway.callback-secret}")
+    private String secret;
+
+    public String sign(String payload) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return HexFormat.of().formatHex(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Could not sign payment callback", ex);
+        }
+    }
+
+    // Constant-time comparison so the signature cannot be guessed byte by byte
+    public boolean verify(String payload, String signature) {
+        if (signature == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(sign(payload).getBytes(StandardCharsets.UTF_8),
+                signature.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,113 @@
+package com.ashu.E_Commerece.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Mergeable quantile sketch over positive values with relative-error
+ * guarantees (the DDSketch scheme): values fall into logarithmic buckets
+ * whose width is set by the accuracy, so any quantile is returned within
+ * that relative error of the true value. Merging adds bucket counts. With 1%
+ * accuracy, amounts from cents to millions span under a thousand buckets.
+ * Not thread-safe; callers synchronize.
+ */
+public class QuantileSketch {
+
+    private static final double MIN_VALUE = 1e-9;
+
+    private final double accuracy;
+    private final double gamma;
+    private final double logGamma;
+    private final TreeMap<Integer, Long> buckets = new TreeMap<>();
+    private long zeroCount;
+    private long count;
+
+    public QuantileSketch(double accuracy) {
+        this.accuracy = accuracy;
+        this.gamma = (1 + accuracy) / (1 - accuracy);
+        this.logGamma = Math.log(gamma);
+    }
+
+    public void add(double value) {
+        if (value <= MIN_VALUE) {
+            zeroCount++;
+        } else {
+            buckets.merge((int) Math.ceil(Math.log(value) / logGamma), 1L, Long::sum);
+        }
+        count++;
+    }
+
+    public void merge(QuantileSketch other) {
+        if (other.accuracy != accuracy) {
+            throw new IllegalArgumentException("Cannot merge sketches with different accuracy");
+        }
+        other.buckets.forEach((index, n) -> buckets.merge(index, n, Long::sum));
+        zeroCount += other.zeroCount;
+        count += other.count;
+    }
+
+    /**
+     * Value at quantile {@code q} in [0, 1], or 0 when the sketch is empty.
+     */
+    public double quantile(double q) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.floor(q * (count - 1));
+        if (rank < zeroCount) {
+            return 0;
+        }
+        long seen = zeroCount;
+        for (Map.Entry<Integer, Long> bucket : buckets.entrySet()) {
+            seen += bucket.getValue();
+            if (seen > rank) {
+                return 2 * Math.pow(gamma, bucket.getKey()) / (gamma + 1);
+            }
+        }
+        return 2 * Math.pow(gamma, buckets.lastKey()) / (gamma + 1);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32 + buckets.size() * 12);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeDouble(accuracy);
+            out.writeLong(zeroCount);
+            out.writeInt(buckets.size());
+            for (Map.Entry<Integer, Long> bucket : buckets.entrySet()) {
+                out.writeInt(bucket.getKey());
+                out.writeLong(bucket.getValue());
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static QuantileSketch fromBytes(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            QuantileSketch sketch = new QuantileSketch(in.readDouble());
+            sketch.zeroCount = in.readLong();
+            sketch.count = sketch.zeroCount;
+            int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                int index = in.readInt();
+                long n = in.readLong();
+                sketch.buckets.put(index, n);
+                sketch.count += n;
+            }
+            return sketch;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.ashu.E_Commerece.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Weighted Space-Saving heavy-hitter tracker: keeps at most {@code capacity}
+ * monitored keys. A new key past capacity replaces the smallest one and
+ * inherits its count, so every key whose true weight exceeds total/capacity is
+ * guaranteed to be monitored. Eviction scans the counters, which is cheap at
+ * the small capacities this is used with. Not thread-safe; callers synchronize.
+ */
+public class SpaceSaving {
+
+    public record Entry(long key, long count, long error) {
+    }
+
+    private final int capacity;
+    private final Map<Long, long[]> counters;
+
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    public void offer(long key, long weight) {
+        long[] counter = counters.get(key);
+        if (counter != null) {
+            counter[0] += weight;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(key, new long[] {weight, 0});
+            return;
+        }
+        Map.Entry<Long, long[]> smallest = null;
+        for (Map.Entry<Long, long[]> entry : counters.entrySet()) {
+            if (smallest == null || entry.getValue()[0] < smallest.getValue()[0]) {
+                smallest = entry;
+            }
+        }
+        long floor = smallest.getValue()[0];
+        counters.remove(smallest.getKey());
+        counters.put(key, new long[] {floor + weight, floor});
+    }
+
+    /**
+     * Monitored keys, largest count first. A count overestimates the key's
+     * weight by at most its error.
+     */
+    public List<Entry> entries() {
+        List<Entry> entries = new ArrayList<>(counters.size());
+        counters.forEach((key, counter) -> entries.add(new Entry(key, counter[0], counter[1])));
+        entries.sort(Comparator.comparingLong(Entry::count).reversed());
+        return entries;
+    }
+
+    public void clear() {
+        counters.clear();
+    }
+}
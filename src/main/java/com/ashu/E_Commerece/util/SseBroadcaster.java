@@ -0,0 +1,117 @@
+package com.ashu.E_Commerece.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Fans framed Server-Sent Events out to any number of subscribers. Events are
+ * built once by the publisher and shared; each subscriber has a bounded queue
+ * drained by its own virtual thread, so a slow client never blocks the
+ * publisher, and one that overflows its queue is disconnected.
+ */
+@Slf4j
+public class SseBroadcaster {
+
+    private final String name;
+    private final int queueSize;
+    private final long timeoutMs;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    public SseBroadcaster(String name, int queueSize, long timeoutMs) {
+        this.name = name;
+        this.queueSize = queueSize;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Frames one event; the result can be broadcast any number of times.
+     */
+    public static Set<ResponseBodyEmitter.DataWithMediaType> event(String eventName, long id, String data) {
+        return SseEmitter.event().name(eventName).id(Long.toString(id)).data(data).build();
+    }
+
+    /**
+     * Opens a stream whose first event is {@code first}. Callers that must
+     * order it against broadcasts hold their own lock around both.
+     */
+    public SseEmitter subscribe(Set<ResponseBodyEmitter.DataWithMediaType> first) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(ex -> subscriber.close());
+        if (first != null) {
+            subscriber.queue.offer(first);
+        }
+        subscribers.add(subscriber);
+        subscriber.start();
+        return emitter;
+    }
+
+    public void broadcast(Set<ResponseBodyEmitter.DataWithMediaType> event) {
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.queue.offer(event)) {
+                log.debug("{} subscriber fell behind; disconnecting", name);
+                subscriber.emitter.complete();
+                subscriber.close();
+            }
+        }
+    }
+
+    /**
+     * Comment line that keeps proxies from closing idle streams and reveals dead clients.
+     */
+    public void heartbeat() {
+        if (!subscribers.isEmpty()) {
+            broadcast(SseEmitter.event().comment("heartbeat").build());
+        }
+    }
+
+    public int size() {
+        return subscribers.size();
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> queue = new ArrayBlockingQueue<>(queueSize);
+        private Thread drainer;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void start() {
+            drainer = Thread.ofVirtual().name(name + "-subscriber").start(this::drain);
+        }
+
+        private void drain() {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    emitter.send(queue.take());
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | IllegalStateException ex) {
+                log.debug("{} subscriber disconnected: {}", name, ex.getMessage());
+            } finally {
+                subscribers.remove(this);
+            }
+        }
+
+        void close() {
+            subscribers.remove(this);
+            if (drainer != null) {
+                drainer.interrupt();
+            }
+        }
+    }
+}
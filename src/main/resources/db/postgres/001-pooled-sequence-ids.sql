@@ -0,0 +1,33 @@
+-- =====================================================
+-- Migrate IDENTITY primary keys to pooled sequences
+--
+-- Run ONCE against an existing PostgreSQL database BEFORE starting a build
+-- that uses sequence-generated ids (ddl-auto=update would otherwise create
+-- the sequences starting at 1 and collide with existing rows).
+--
+--   psql -U ecommerce -d ecommerce -f 001-pooled-sequence-ids.sql
+--
+-- Hibernate's pooled optimizer treats each nextval() as the upper bound of
+-- a block of 50 ids, so every sequence is positioned at MAX(id) + 50.
+-- =====================================================
+
+BEGIN;
+
+DO $$
+DECLARE
+    t TEXT;
+    max_id BIGINT;
+BEGIN
+    FOREACH t IN ARRAY ARRAY['users', 'categories', 'products', 'carts', 'cart_items',
+                             'orders', 'order_items', 'reviews']
+    LOOP
+        EXECUTE format('CREATE SEQUENCE IF NOT EXISTS %I INCREMENT BY 50', t || '_seq');
+        EXECUTE format('SELECT COALESCE(MAX(id), 0) FROM %I', t) INTO max_id;
+        EXECUTE format('SELECT setval(%L, %s, false)', t || '_seq', max_id + 50);
+        -- Ids are now assigned by Hibernate; drop the column-level generator
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP IDENTITY IF EXISTS', t);
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP DEFAULT', t);
+    END LOOP;
+END $$;
+
+COMMIT;
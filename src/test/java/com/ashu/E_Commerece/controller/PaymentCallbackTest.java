@@ -0,0 +1,158 @@
+package com.ashu.E_Commerece.controller;
+
+import com.ashu.E_Commerece.model.Order;
+import com.ashu.E_Commerece.model.OrderEventType;
+import com.ashu.E_Commerece.model.OrderStatus;
+import com.ashu.E_Commerece.model.Payment;
+import com.ashu.E_Commerece.model.PaymentStatus;
+import com.ashu.E_Commerece.model.User;
+import com.ashu.E_Commerece.repository.OrderEventRepository;
+import com.ashu.E_Commerece.repository.OrderRepository;
+import com.ashu.E_Commerece.repository.PaymentRepository;
+import com.ashu.E_Commerece.repository.UserRepository;
+import com.ashu.E_Commerece.util.PaymentCallbackSigner;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Posts gateway callbacks through the full filter chain against the
+ * in-memory database. Payments are inserted directly so no gateway
+ * submission races the callbacks under test.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class PaymentCallbackTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PaymentCallbackSigner callbackSigner;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderEventRepository orderEventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void rejectsCallbacksWithoutAValidSignature() throws Exception {
+        Order order = createOrder(OrderStatus.PENDING);
+        Payment payment = createPayment(order);
+        String body = callbackBody(payment.getPaymentId(), "SUCCESS", "GW-1");
+
+        mockMvc.perform(post("/api/payments/callback")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/api/payments/callback")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(PaymentCallbackSigner.HEADER, callbackSigner.sign(body + " "))
+                        .content(body))
+                .andExpect(status().isUnauthorized());
+
+        assertThat(paymentRepository.findById(payment.getId()).orElseThrow().getStatus()).isEqualTo(PaymentStatus.PENDING);
+        assertThat(orderRepository.findById(order.getId()).orElseThrow().getStatus()).isEqualTo(OrderStatus.PENDING);
+    }
+
+    @Test
+    void confirmsTheOrderOnceAndIgnoresReplays() throws Exception {
+        Order order = createOrder(OrderStatus.PENDING);
+        Payment payment = createPayment(order);
+
+        sendSigned(callbackBody(payment.getPaymentId(), "SUCCESS", "GW-1")).andExpect(status().isOk());
+
+        Payment completed = paymentRepository.findById(payment.getId()).orElseThrow();
+        assertThat(completed.getStatus()).isEqualTo(PaymentStatus.SUCCESS);
+        assertThat(completed.getGatewayReference()).isEqualTo("GW-1");
+        Order confirmed = orderRepository.findById(order.getId()).orElseThrow();
+        assertThat(confirmed.getStatus()).isEqualTo(OrderStatus.CONFIRMED);
+        assertThat(confirmed.getPaymentId()).isEqualTo(payment.getPaymentId());
+        assertThat(orderEventRepository.findByOrderIdOrderByIdAsc(order.getId()))
+                .filteredOn(event -> event.getType() == OrderEventType.STATUS_CHANGED)
+                .hasSize(1);
+
+        // Redelivery, and a late failure for the same attempt, change nothing
+        sendSigned(callbackBody(payment.getPaymentId(), "SUCCESS", "GW-2")).andExpect(status().isOk());
+        sendSigned(callbackBody(payment.getPaymentId(), "FAILED", "GW-3")).andExpect(status().isOk());
+
+        Payment replayed = paymentRepository.findById(payment.getId()).orElseThrow();
+        assertThat(replayed.getStatus()).isEqualTo(PaymentStatus.SUCCESS);
+        assertThat(replayed.getGatewayReference()).isEqualTo("GW-1");
+        assertThat(replayed.getCompletedAt()).isEqualTo(completed.getCompletedAt());
+        assertThat(orderRepository.findById(order.getId()).orElseThrow().getStatus()).isEqualTo(OrderStatus.CONFIRMED);
+        assertThat(orderEventRepository.findByOrderIdOrderByIdAsc(order.getId()))
+                .filteredOn(event -> event.getType() == OrderEventType.STATUS_CHANGED)
+                .hasSize(1);
+    }
+
+    @Test
+    void successAfterCancellationLeavesTheOrderCancelled() throws Exception {
+        Order order = createOrder(OrderStatus.CANCELLED);
+        Payment payment = createPayment(order);
+
+        sendSigned(callbackBody(payment.getPaymentId(), "SUCCESS", "GW-1")).andExpect(status().isOk());
+
+        // The money was taken, so the attempt is recorded as such for the refund
+        Payment completed = paymentRepository.findById(payment.getId()).orElseThrow();
+        assertThat(completed.getStatus()).isEqualTo(PaymentStatus.SUCCESS);
+        assertThat(completed.getCompletedAt()).isNotNull();
+        Order cancelled = orderRepository.findById(order.getId()).orElseThrow();
+        assertThat(cancelled.getStatus()).isEqualTo(OrderStatus.CANCELLED);
+        assertThat(cancelled.getPaymentId()).isNull();
+        assertThat(orderEventRepository.findByOrderIdOrderByIdAsc(order.getId())).isEmpty();
+    }
+
+    private ResultActions sendSigned(String body) throws Exception {
+        return mockMvc.perform(post("/api/payments/callback")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(PaymentCallbackSigner.HEADER, callbackSigner.sign(body))
+                .content(body));
+    }
+
+    private static String callbackBody(String paymentId, String status, String gatewayReference) {
+        return "{\"paymentId\":\"" + paymentId + "\",\"status\":\"" + status +
+                "\",\"gatewayReference\":\"" + gatewayReference + "\"}";
+    }
+
+    private Order createOrder(OrderStatus status) {
+        User user = userRepository.findByEmail("user@example.com").orElseThrow();
+        return orderRepository.save(Order.builder()
+                .orderNumber("ORD-TEST-" + UUID.randomUUID())
+                .user(user)
+                .subtotal(new BigDecimal("25.00"))
+                .totalAmount(new BigDecimal("25.00"))
+                .status(status)
+                .build());
+    }
+
+    private Payment createPayment(Order order) {
+        return paymentRepository.save(Payment.builder()
+                .paymentId("PAY-TEST-" + UUID.randomUUID())
+                .orderId(order.getId())
+                .attempt(1)
+                .amount(order.getTotalAmount())
+                .paymentMethod("CARD")
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+}
@@ -0,0 +1,177 @@
+package com.ashu.E_Commerece.service;
+
+import com.ashu.E_Commerece.dto.analytics.SalesAnalytics;
+import com.ashu.E_Commerece.repository.OrderRepository;
+import com.ashu.E_Commerece.repository.ProductRepository;
+import com.ashu.E_Commerece.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Drives the store against mocked repositories and a temporary segment
+ * directory, restarting it by building a new instance over the same directory.
+ */
+class ColumnarAnalyticsStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private final List<Object[]> orderRows = new ArrayList<>();
+    private final List<Object[]> itemRows = new ArrayList<>();
+    private final List<Object[]> userRows = new ArrayList<>();
+    private final List<Object[]> productRows = new ArrayList<>();
+
+    private OrderRepository orderRepository;
+    private LocalDateTime now;
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        now = LocalDateTime.now();
+        today = now.toLocalDate();
+        orderRows.add(new Object[] {1L, now, 10L, "DELIVERED", new BigDecimal("100.00")});
+        orderRows.add(new Object[] {2L, now, 11L, "PENDING", new BigDecimal("50.50")});
+        itemRows.add(new Object[] {1L, 100L, 2, new BigDecimal("50.00")});
+        itemRows.add(new Object[] {2L, 101L, 1, new BigDecimal("50.50")});
+        userRows.add(new Object[] {10L, "USER", now, now});
+        userRows.add(new Object[] {11L, "USER", now, null});
+        productRows.add(new Object[] {100L, "Phone", 5L, "Phones", true, 3, new BigDecimal("4.50")});
+        productRows.add(new Object[] {101L, "Book", null, null, true, 20, null});
+    }
+
+    @Test
+    void firstSyncWritesASegmentAndAnswersQueries() throws IOException {
+        ColumnarAnalyticsStore store = start(32);
+
+        SalesAnalytics sales = sales(store);
+        assertThat(sales.getTotalOrders()).isEqualTo(2);
+        assertThat(sales.getTotalRevenue()).isEqualByComparingTo("150.50");
+        assertThat(sales.getUniqueBuyers()).isEqualTo(2);
+        assertThat(sales.getCategorySales()).extracting(SalesAnalytics.CategorySales::getCategoryId)
+                .containsExactly(5L, 0L);
+        assertThat(store.userAnalytics(30, 30, 12).getTotalUsers()).isEqualTo(2);
+        assertThat(segments()).hasSize(1);
+    }
+
+    @Test
+    void restartReplaysSegmentsAndResumesFromTheWatermark() {
+        start(32);
+        orderRows.clear();
+        itemRows.clear();
+        userRows.clear();
+
+        ColumnarAnalyticsStore restarted = start(32);
+
+        SalesAnalytics sales = sales(restarted);
+        assertThat(sales.getTotalOrders()).isEqualTo(2);
+        assertThat(sales.getTotalRevenue()).isEqualByComparingTo("150.50");
+        assertThat(sales.getCategorySales()).extracting(SalesAnalytics.CategorySales::getUnitsSold)
+                .containsExactly(2L, 1L);
+        assertThat(restarted.userAnalytics(30, 30, 12).getTotalUsers()).isEqualTo(2);
+
+        // Only the overlap window is re-read, not the full history
+        ArgumentCaptor<LocalDateTime> since = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(orderRepository, atLeastOnce()).streamOrderFactsChangedSince(since.capture());
+        assertThat(since.getValue()).isAfter(now.minusMinutes(10));
+    }
+
+    @Test
+    void syncUpsertsChangedRowsAndPersistsOnlyThem() throws IOException {
+        ColumnarAnalyticsStore store = start(32);
+
+        // Re-reading the same rows changes nothing and writes no segment
+        store.sync();
+        assertThat(segments()).hasSize(1);
+
+        orderRows.set(1, new Object[] {2L, now, 11L, "CANCELLED", new BigDecimal("50.50")});
+        store.sync();
+
+        SalesAnalytics sales = sales(store);
+        assertThat(sales.getTotalOrders()).isEqualTo(2);
+        assertThat(sales.getTotalRevenue()).isEqualByComparingTo("100.00");
+        assertThat(sales.getOrdersByStatus()).containsEntry("CANCELLED", 1L).containsEntry("DELIVERED", 1L);
+        // Lines are taken once per order, however often the order is re-read
+        assertThat(sales.getCategorySales()).extracting(SalesAnalytics.CategorySales::getUnitsSold)
+                .containsExactly(2L);
+        assertThat(segments()).hasSize(2);
+    }
+
+    @Test
+    void compactionRewritesTheStoreAsOneSegment() throws IOException {
+        ColumnarAnalyticsStore store = start(2);
+        for (int i = 1; i <= 2; i++) {
+            orderRows.set(0, new Object[] {1L, now, 10L, "DELIVERED", new BigDecimal(100 + i + ".00")});
+            store.sync();
+        }
+
+        // The third segment goes past the limit, so all three are replaced by one
+        assertThat(segments()).hasSize(1);
+        assertThat(sales(store).getTotalRevenue()).isEqualByComparingTo("152.50");
+
+        orderRows.clear();
+        ColumnarAnalyticsStore restarted = start(2);
+        assertThat(sales(restarted).getTotalOrders()).isEqualTo(2);
+        assertThat(sales(restarted).getTotalRevenue()).isEqualByComparingTo("152.50");
+    }
+
+    private ColumnarAnalyticsStore start(int maxSegments) {
+        orderRepository = mock(OrderRepository.class);
+        UserRepository userRepository = mock(UserRepository.class);
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(orderRepository.streamOrderFactsChangedSince(any())).thenAnswer(call -> copy(orderRows));
+        when(orderRepository.streamItemFactsOfOrdersCreatedSince(any())).thenAnswer(call -> copy(itemRows));
+        when(userRepository.streamUserFactsChangedSince(any())).thenAnswer(call -> copy(userRows));
+        when(productRepository.findSnapshotDimensions()).thenAnswer(call -> List.copyOf(productRows));
+
+        ColumnarAnalyticsStore store = new ColumnarAnalyticsStore(orderRepository, userRepository,
+                productRepository, mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(store, "engine", "columnar");
+        ReflectionTestUtils.setField(store, "directoryPath", directory.toString());
+        ReflectionTestUtils.setField(store, "overlapSeconds", 300L);
+        ReflectionTestUtils.setField(store, "maxSegments", maxSegments);
+        store.init();
+
+        store.load();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!store.isReady()) {
+            assertThat(System.currentTimeMillis()).as("store ready").isLessThan(deadline);
+            Thread.onSpinWait();
+        }
+        return store;
+    }
+
+    private SalesAnalytics sales(ColumnarAnalyticsStore store) {
+        return store.salesAnalytics(today.minusDays(30), today, today.minusDays(30));
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".bin")).toList();
+        }
+    }
+
+    private static Stream<Object[]> copy(List<Object[]> rows) {
+        return List.copyOf(rows).stream();
+    }
+}
@@ -0,0 +1,131 @@
+package com.ashu.E_Commerece.service;
+
+import com.ashu.E_Commerece.dto.order.BulkOrderStatusUpdateRequest;
+import com.ashu.E_Commerece.dto.order.BulkOrderStatusUpdateResponse;
+import com.ashu.E_Commerece.exception.BadRequestException;
+import com.ashu.E_Commerece.model.Order;
+import com.ashu.E_Commerece.model.OrderEvent;
+import com.ashu.E_Commerece.model.OrderEventType;
+import com.ashu.E_Commerece.model.OrderStatus;
+import com.ashu.E_Commerece.model.User;
+import com.ashu.E_Commerece.repository.OrderEventRepository;
+import com.ashu.E_Commerece.repository.OrderRepository;
+import com.ashu.E_Commerece.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the set-based bulk transition against the in-memory database, so the
+ * predecessor guard and the read-back of the rows stamped with the same
+ * updatedAt go through real SQL.
+ */
+@SpringBootTest
+class OrderServiceBulkStatusTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderEventRepository orderEventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void shipsOnlyOrdersWhoseStatusAllowsItAndReportsTheRest() {
+        Long confirmed = createOrder(OrderStatus.CONFIRMED);
+        Long processing = createOrder(OrderStatus.PROCESSING);
+        Long pending = createOrder(OrderStatus.PENDING);
+        Long delivered = createOrder(OrderStatus.DELIVERED);
+        // Already in the target status with an older updatedAt; must not be read back as transitioned
+        Long alreadyShipped = createOrder(OrderStatus.SHIPPED);
+        Long unknown = Long.MAX_VALUE;
+
+        BulkOrderStatusUpdateResponse response = orderService.bulkUpdateOrderStatus(BulkOrderStatusUpdateRequest.builder()
+                .orderIds(List.of(confirmed, pending, processing, delivered, alreadyShipped, unknown, confirmed))
+                .status(OrderStatus.SHIPPED)
+                .build());
+
+        assertThat(response.getStatus()).isEqualTo("SHIPPED");
+        assertThat(response.getRequested()).isEqualTo(6);
+        assertThat(response.getUpdated()).isEqualTo(2);
+        assertThat(response.getSkippedOrderIds()).containsExactly(pending, delivered, alreadyShipped, unknown);
+
+        for (Long id : List.of(confirmed, processing)) {
+            Order order = orderRepository.findById(id).orElseThrow();
+            assertThat(order.getStatus()).isEqualTo(OrderStatus.SHIPPED);
+            assertThat(order.getShippedAt()).isNotNull().isEqualTo(order.getUpdatedAt());
+
+            List<OrderEvent> events = orderEventRepository.findByOrderIdOrderByIdAsc(id);
+            assertThat(events).hasSize(1);
+            OrderEvent event = events.get(0);
+            assertThat(event.getType()).isEqualTo(OrderEventType.STATUS_CHANGED);
+            assertThat(event.getToStatus()).isEqualTo(OrderStatus.SHIPPED);
+            assertThat(event.getNote()).isEqualTo("Bulk status update");
+            assertThat(event.getActor()).isEqualTo("system");
+            assertThat(event.getCreatedAt()).isEqualTo(order.getUpdatedAt());
+        }
+
+        assertThat(orderRepository.findById(pending).orElseThrow().getStatus()).isEqualTo(OrderStatus.PENDING);
+        assertThat(orderRepository.findById(delivered).orElseThrow().getStatus()).isEqualTo(OrderStatus.DELIVERED);
+        assertThat(orderRepository.findById(alreadyShipped).orElseThrow().getShippedAt()).isNull();
+        for (Long id : List.of(pending, delivered, alreadyShipped)) {
+            assertThat(orderEventRepository.findByOrderIdOrderByIdAsc(id)).isEmpty();
+        }
+    }
+
+    @Test
+    void deliversShippedOrdersInASecondPass() {
+        Long shipped = createOrder(OrderStatus.SHIPPED);
+        Long confirmed = createOrder(OrderStatus.CONFIRMED);
+
+        BulkOrderStatusUpdateResponse response = orderService.bulkUpdateOrderStatus(BulkOrderStatusUpdateRequest.builder()
+                .orderIds(List.of(shipped, confirmed))
+                .status(OrderStatus.DELIVERED)
+                .build());
+
+        assertThat(response.getUpdated()).isEqualTo(1);
+        assertThat(response.getSkippedOrderIds()).containsExactly(confirmed);
+        Order order = orderRepository.findById(shipped).orElseThrow();
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.DELIVERED);
+        assertThat(order.getDeliveredAt()).isEqualTo(order.getUpdatedAt());
+        assertThat(orderEventRepository.findByOrderIdOrderByIdAsc(shipped))
+                .extracting(OrderEvent::getToStatus)
+                .containsExactly(OrderStatus.DELIVERED);
+        assertThat(orderEventRepository.findByOrderIdOrderByIdAsc(confirmed)).isEmpty();
+    }
+
+    @Test
+    void rejectsTargetsThatNeedPerOrderHandling() {
+        Long confirmed = createOrder(OrderStatus.CONFIRMED);
+
+        assertThatThrownBy(() -> orderService.bulkUpdateOrderStatus(BulkOrderStatusUpdateRequest.builder()
+                .orderIds(List.of(confirmed))
+                .status(OrderStatus.CANCELLED)
+                .build()))
+                .isInstanceOf(BadRequestException.class);
+        assertThat(orderRepository.findById(confirmed).orElseThrow().getStatus()).isEqualTo(OrderStatus.CONFIRMED);
+    }
+
+    private Long createOrder(OrderStatus status) {
+        User user = userRepository.findByEmail("user@example.com").orElseThrow();
+        return orderRepository.save(Order.builder()
+                .orderNumber("ORD-TEST-" + UUID.randomUUID())
+                .user(user)
+                .subtotal(new BigDecimal("10.00"))
+                .totalAmount(new BigDecimal("10.00"))
+                .status(status)
+                .build()).getId();
+    }
+}
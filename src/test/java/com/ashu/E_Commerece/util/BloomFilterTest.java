@@ -0,0 +1,45 @@
+package com.ashu.E_Commerece.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    @Test
+    void neverMissesAnAddedKey() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (long key = 0; key < 10_000; key++) {
+            filter.add(key);
+        }
+
+        for (long key = 0; key < 10_000; key++) {
+            assertThat(filter.mightContain(key)).isTrue();
+        }
+    }
+
+    @Test
+    void falsePositivesStayNearTheConfiguredRate() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (long key = 0; key < 10_000; key++) {
+            filter.add(key);
+        }
+
+        int falsePositives = 0;
+        for (long key = 1_000_000; key < 1_100_000; key++) {
+            if (filter.mightContain(key)) {
+                falsePositives++;
+            }
+        }
+        // 1% of 100,000 probes, with room for hashing variance
+        assertThat(falsePositives).isLessThan(2_000);
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+        BloomFilter filter = new BloomFilter(0, 0.01);
+
+        assertThat(filter.mightContain(0)).isFalse();
+        assertThat(filter.mightContain(123)).isFalse();
+    }
+}
@@ -0,0 +1,71 @@
+package com.ashu.E_Commerece.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CountMinSketchTest {
+
+    @Test
+    void neverUndercountsAndStaysWithinTheErrorBound() {
+        CountMinSketch sketch = new CountMinSketch(4, 1024);
+        Map<Long, Long> exact = new HashMap<>();
+        Random random = new Random(7);
+        long total = 0;
+        for (int i = 0; i < 50_000; i++) {
+            long key = random.nextInt(5_000);
+            long weight = 1 + random.nextInt(5);
+            sketch.add(key, weight);
+            exact.merge(key, weight, Long::sum);
+            total += weight;
+        }
+
+        long bound = (long) Math.ceil(Math.E / 1024 * total);
+        for (Map.Entry<Long, Long> entry : exact.entrySet()) {
+            long estimate = sketch.estimate(entry.getKey());
+            assertThat(estimate).isGreaterThanOrEqualTo(entry.getValue());
+            assertThat(estimate - entry.getValue()).isLessThanOrEqualTo(bound);
+        }
+    }
+
+    @Test
+    void mergeAddsCounters() {
+        CountMinSketch left = new CountMinSketch(4, 256);
+        CountMinSketch right = new CountMinSketch(4, 256);
+        left.add(1, 10);
+        left.add(2, 3);
+        right.add(1, 5);
+        right.add(3, 8);
+
+        left.merge(right);
+
+        assertThat(left.estimate(1)).isGreaterThanOrEqualTo(15);
+        assertThat(left.estimate(2)).isGreaterThanOrEqualTo(3);
+        assertThat(left.estimate(3)).isGreaterThanOrEqualTo(8);
+    }
+
+    @Test
+    void refusesToMergeDifferentShapes() {
+        CountMinSketch sketch = new CountMinSketch(4, 256);
+
+        assertThatThrownBy(() -> sketch.merge(new CountMinSketch(3, 256)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> sketch.merge(new CountMinSketch(4, 1024)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void clearForgetsEverything() {
+        CountMinSketch sketch = new CountMinSketch(4, 256);
+        sketch.add(9, 100);
+
+        sketch.clear();
+
+        assertThat(sketch.estimate(9)).isZero();
+    }
+}
@@ -0,0 +1,54 @@
+package com.ashu.E_Commerece.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvTest {
+
+    @Test
+    void readsQuotedSeparatorsAndDoubledQuotes() throws IOException {
+        Csv.Reader reader = reader("payment_id,amount,description\nPAY-1,\"1,234.50\",\"said \"\"hi\"\", then left\"\n");
+
+        assertThat(reader.readRecord()).containsExactly("payment_id", "amount", "description");
+        assertThat(reader.readRecord()).containsExactly("PAY-1", "1,234.50", "said \"hi\", then left");
+        assertThat(reader.readRecord()).isNull();
+    }
+
+    @Test
+    void quotedFieldsMaySpanLinesAndLineNumbersFollowTheFile() throws IOException {
+        Csv.Reader reader = reader("a,b\n\"first\nsecond\",x\n\nlast,y\n");
+
+        reader.readRecord();
+        assertThat(reader.readRecord()).containsExactly("first\nsecond", "x");
+        assertThat(reader.getLineNumber()).isEqualTo(2);
+        assertThat(reader.readRecord()).containsExactly("");
+        assertThat(reader.readRecord()).containsExactly("last", "y");
+        assertThat(reader.getLineNumber()).isEqualTo(5);
+    }
+
+    @Test
+    void keepsEmptyFieldsAndQuotesInsideUnquotedFields() throws IOException {
+        Csv.Reader reader = reader(",a\"b,\n");
+
+        assertThat(reader.readRecord()).containsExactly("", "a\"b", "");
+    }
+
+    @Test
+    void writtenFieldsReadBackUnchanged() throws IOException {
+        List<String> values = List.of("plain", "with,comma", "with \"quote\"", "two\nlines", "");
+        String line = String.join(",", values.stream().map(Csv::field).toList());
+
+        assertThat(reader(line + "\n").readRecord()).isEqualTo(values);
+        assertThat(Csv.field(null)).isEmpty();
+    }
+
+    private static Csv.Reader reader(String text) {
+        return new Csv.Reader(new BufferedReader(new StringReader(text)));
+    }
+}
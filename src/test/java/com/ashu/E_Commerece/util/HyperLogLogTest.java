@@ -0,0 +1,74 @@
+package com.ashu.E_Commerece.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class HyperLogLogTest {
+
+    @Test
+    void estimatesDistinctCountWithinAFewStandardErrors() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (long value = 1; value <= 100_000; value++) {
+            sketch.add(value);
+            sketch.add(value);
+        }
+
+        // ~1.6% standard error; 5% leaves room for an unlucky hash
+        assertThat((double) sketch.estimate()).isCloseTo(100_000, within(5_000.0));
+    }
+
+    @Test
+    void smallCardinalitiesAreNearExact() {
+        HyperLogLog sketch = new HyperLogLog();
+        assertThat(sketch.estimate()).isZero();
+
+        for (long value = 1; value <= 50; value++) {
+            sketch.add(value);
+        }
+
+        assertThat((double) sketch.estimate()).isCloseTo(50, within(2.0));
+    }
+
+    @Test
+    void bytesRoundTripToTheSameEstimate() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (long value = 0; value < 20_000; value++) {
+            sketch.add(value);
+        }
+
+        HyperLogLog restored = HyperLogLog.fromBytes(sketch.toBytes());
+
+        assertThat(restored.estimate()).isEqualTo(sketch.estimate());
+        assertThat(restored.toBytes()).isEqualTo(sketch.toBytes());
+    }
+
+    @Test
+    void rejectsBytesOfTheWrongSize() {
+        assertThatThrownBy(() -> HyperLogLog.fromBytes(new byte[16]))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void mergeCountsTheUnionOnce() {
+        HyperLogLog left = new HyperLogLog();
+        HyperLogLog right = new HyperLogLog();
+        HyperLogLog union = new HyperLogLog();
+        for (long value = 0; value < 60_000; value++) {
+            left.add(value);
+            union.add(value);
+        }
+        for (long value = 40_000; value < 100_000; value++) {
+            right.add(value);
+            union.add(value);
+        }
+
+        left.merge(right);
+
+        // Register-wise max is exactly the sketch of the union
+        assertThat(left.toBytes()).isEqualTo(union.toBytes());
+        assertThat((double) left.estimate()).isCloseTo(100_000, within(5_000.0));
+    }
+}
@@ -0,0 +1,47 @@
+package com.ashu.E_Commerece.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongHashSetTest {
+
+    @Test
+    void keepsEveryKeyAcrossResizes() {
+        LongHashSet set = new LongHashSet(4);
+        for (long key = 1; key <= 10_000; key++) {
+            assertThat(set.add(key * 31)).isTrue();
+        }
+
+        assertThat(set.size()).isEqualTo(10_000);
+        for (long key = 1; key <= 10_000; key++) {
+            assertThat(set.contains(key * 31)).isTrue();
+            assertThat(set.contains(key * 31 + 1)).isFalse();
+        }
+    }
+
+    @Test
+    void addingAKeyTwiceCountsItOnce() {
+        LongHashSet set = new LongHashSet(16);
+
+        assertThat(set.add(42)).isTrue();
+        assertThat(set.add(42)).isFalse();
+        assertThat(set.size()).isEqualTo(1);
+    }
+
+    @Test
+    void tracksZeroAndNegativeKeys() {
+        LongHashSet set = new LongHashSet(16);
+        assertThat(set.contains(0)).isFalse();
+
+        assertThat(set.add(0)).isTrue();
+        assertThat(set.add(0)).isFalse();
+        assertThat(set.add(-7)).isTrue();
+        assertThat(set.add(Long.MIN_VALUE)).isTrue();
+
+        assertThat(set.contains(0)).isTrue();
+        assertThat(set.contains(-7)).isTrue();
+        assertThat(set.contains(Long.MIN_VALUE)).isTrue();
+        assertThat(set.size()).isEqualTo(3);
+    }
+}
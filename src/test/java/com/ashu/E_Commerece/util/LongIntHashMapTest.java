@@ -0,0 +1,55 @@
+package com.ashu.E_Commerece.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LongIntHashMapTest {
+
+    @Test
+    void keepsEveryEntryAcrossResizes() {
+        LongIntHashMap map = new LongIntHashMap(4);
+        for (int row = 0; row < 10_000; row++) {
+            map.put(1_000_000L + row * 17L, row);
+        }
+
+        assertThat(map.size()).isEqualTo(10_000);
+        for (int row = 0; row < 10_000; row++) {
+            assertThat(map.get(1_000_000L + row * 17L)).isEqualTo(row);
+        }
+        assertThat(map.get(1_000_001L)).isEqualTo(LongIntHashMap.MISSING);
+    }
+
+    @Test
+    void putOverwritesWithoutGrowing() {
+        LongIntHashMap map = new LongIntHashMap(16);
+        map.put(5, 1);
+
+        map.put(5, 2);
+
+        assertThat(map.get(5)).isEqualTo(2);
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @Test
+    void tracksTheZeroKey() {
+        LongIntHashMap map = new LongIntHashMap(16);
+        assertThat(map.get(0)).isEqualTo(LongIntHashMap.MISSING);
+
+        map.put(0, 3);
+        map.put(0, 4);
+        map.put(-1, 0);
+
+        assertThat(map.get(0)).isEqualTo(4);
+        assertThat(map.get(-1)).isZero();
+        assertThat(map.size()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsNegativeValues() {
+        LongIntHashMap map = new LongIntHashMap(16);
+
+        assertThatThrownBy(() -> map.put(1, -1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,79 @@
+package com.ashu.E_Commerece.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class QuantileSketchTest {
+
+    @Test
+    void quantilesStayWithinTheRelativeAccuracy() {
+        QuantileSketch sketch = new QuantileSketch(0.01);
+        for (int value = 1; value <= 10_000; value++) {
+            sketch.add(value);
+        }
+
+        assertThat(sketch.getCount()).isEqualTo(10_000);
+        assertThat(sketch.quantile(0.5)).isCloseTo(5_000, within(5_000 * 0.01));
+        assertThat(sketch.quantile(0.9)).isCloseTo(9_000, within(9_000 * 0.01));
+        assertThat(sketch.quantile(0.99)).isCloseTo(9_900, within(9_900 * 0.01));
+        assertThat(sketch.quantile(1)).isCloseTo(10_000, within(10_000 * 0.01));
+    }
+
+    @Test
+    void emptySketchAndZeroValuesReturnZero() {
+        QuantileSketch sketch = new QuantileSketch(0.01);
+        assertThat(sketch.quantile(0.5)).isZero();
+
+        sketch.add(0);
+        sketch.add(0);
+        sketch.add(100);
+
+        assertThat(sketch.quantile(0.5)).isZero();
+        assertThat(sketch.quantile(1)).isCloseTo(100, within(1.0));
+    }
+
+    @Test
+    void bytesRoundTripToTheSameQuantiles() {
+        QuantileSketch sketch = new QuantileSketch(0.01);
+        sketch.add(0);
+        for (int value = 1; value <= 5_000; value++) {
+            sketch.add(value * 0.37);
+        }
+
+        QuantileSketch restored = QuantileSketch.fromBytes(sketch.toBytes());
+
+        assertThat(restored.getCount()).isEqualTo(sketch.getCount());
+        for (double q : new double[] {0, 0.1, 0.5, 0.9, 0.99, 1}) {
+            assertThat(restored.quantile(q)).isEqualTo(sketch.quantile(q));
+        }
+        assertThat(restored.toBytes()).isEqualTo(sketch.toBytes());
+    }
+
+    @Test
+    void mergeMatchesASketchOfAllValues() {
+        QuantileSketch left = new QuantileSketch(0.01);
+        QuantileSketch right = new QuantileSketch(0.01);
+        QuantileSketch all = new QuantileSketch(0.01);
+        for (int value = 1; value <= 4_000; value++) {
+            (value % 3 == 0 ? right : left).add(value);
+            all.add(value);
+        }
+
+        left.merge(right);
+
+        assertThat(left.getCount()).isEqualTo(4_000);
+        assertThat(left.toBytes()).isEqualTo(all.toBytes());
+        assertThat(left.quantile(0.5)).isEqualTo(all.quantile(0.5));
+    }
+
+    @Test
+    void refusesToMergeDifferentAccuracies() {
+        QuantileSketch sketch = new QuantileSketch(0.01);
+
+        assertThatThrownBy(() -> sketch.merge(new QuantileSketch(0.02)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
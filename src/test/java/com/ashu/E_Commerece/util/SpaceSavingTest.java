@@ -0,0 +1,65 @@
+package com.ashu.E_Commerece.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SpaceSavingTest {
+
+    @Test
+    void keepsHeavyHittersAmongManyLightKeys() {
+        SpaceSaving tracker = new SpaceSaving(20);
+        Random random = new Random(11);
+        for (int i = 0; i < 20_000; i++) {
+            // Keys 1..3 take about 30% of the weight, spread over 10,000 others
+            long key = i % 10 < 3 ? 1 + i % 3 : 100 + random.nextInt(10_000);
+            tracker.offer(key, 1);
+        }
+
+        List<SpaceSaving.Entry> entries = tracker.entries();
+        assertThat(entries).hasSize(20);
+        assertThat(entries.subList(0, 3)).extracting(SpaceSaving.Entry::key)
+                .containsExactlyInAnyOrder(1L, 2L, 3L);
+        for (SpaceSaving.Entry entry : entries.subList(0, 3)) {
+            // Each heavy key was offered 2,000 times; the count may overestimate by its error
+            assertThat(entry.count()).isGreaterThanOrEqualTo(2_000);
+            assertThat(entry.count() - entry.error()).isLessThanOrEqualTo(2_000);
+        }
+    }
+
+    @Test
+    void evictedSlotIsInheritedWithItsCount() {
+        SpaceSaving tracker = new SpaceSaving(2);
+        tracker.offer(1, 10);
+        tracker.offer(2, 4);
+
+        tracker.offer(3, 1);
+
+        assertThat(tracker.entries()).containsExactly(
+                new SpaceSaving.Entry(1, 10, 0),
+                new SpaceSaving.Entry(3, 5, 4));
+    }
+
+    @Test
+    void entriesAreLargestFirstAndClearEmptiesThem() {
+        SpaceSaving tracker = new SpaceSaving(5);
+        tracker.offer(7, 1);
+        tracker.offer(8, 3);
+        tracker.offer(7, 5);
+
+        assertThat(tracker.entries()).extracting(SpaceSaving.Entry::key).containsExactly(7L, 8L);
+
+        tracker.clear();
+
+        assertThat(tracker.entries()).isEmpty();
+    }
+
+    @Test
+    void rejectsNonPositiveCapacity() {
+        assertThatThrownBy(() -> new SpaceSaving(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}